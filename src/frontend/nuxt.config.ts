@@ -52,6 +52,10 @@ export default defineNuxtConfig({
         transpile: ["vuetify"],
     },
 
+    nitro: {
+        compressPublicAssets: { gzip: true, brotli: true }, // .gz/.br variants served by Springboot (see WebConfig).
+    },
+
     sourcemap: {
         "server" : true,
         "client" : true,
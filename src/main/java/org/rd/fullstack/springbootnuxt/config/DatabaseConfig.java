@@ -16,23 +16,149 @@
 package org.rd.fullstack.springbootnuxt.config;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
 import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
 import org.rd.fullstack.springbootnuxt.dao.PersonRepository;
 import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
 import org.rd.fullstack.springbootnuxt.dto.Inventory;
 import org.rd.fullstack.springbootnuxt.dto.Person;
 import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.util.LocalReplicaSync;
+import org.rd.fullstack.springbootnuxt.util.ReplicaRoutingDataSource;
+import org.rd.fullstack.springbootnuxt.util.TransactionRetry;
+import org.rd.fullstack.springbootnuxt.util.WorkloadRoutingDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableTransactionManagement
 public class DatabaseConfig {
 
+    private static final List<String> CST_TRANSACTION_CONTROLS = List.of("LOCKS", "MVLOCKS", "MVCC");
+
+    // Connection pools (HikariCP) per workload: same database (spring.datasource), separate connections.
+    // The pools are beans: their metrics are exported (hikaricp_connections_*, tag pool).
+    @Bean
+    @ConfigurationProperties("org.rd.fullstack.springbootnuxt.datasource.oltp")
+    HikariDataSource oltpDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("org.rd.fullstack.springbootnuxt.datasource.reporting")
+    HikariDataSource reportingDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Development and tests: in-memory replicas of the primary, copied every local-replicas-sync ms.
+    @Bean
+    @ConditionalOnExpression("${org.rd.fullstack.springbootnuxt.datasource.local-replicas:0} > 0")
+    LocalReplicaSync localReplicaSync(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                      ResourceLoader resourceLoader,
+                                      @Value("${org.rd.fullstack.springbootnuxt.datasource.local-replicas:0}") int count,
+                                      @Value("${org.rd.fullstack.springbootnuxt.datasource.local-replicas-sync:1000}") long interval) {
+        return new LocalReplicaSync(reportingDataSource, count, resourceLoader.getResource("classpath:schema.sql"), interval);
+    }
+
+    // Read replicas (datasource.replicas: HikariCP settings) and the local ones. None: the primary serves the reads.
+    @Bean
+    ReplicaRoutingDataSource replicaDataSource(Environment environment,
+                                               ObjectProvider<LocalReplicaSync> localReplicaSync,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${org.rd.fullstack.springbootnuxt.datasource.replica-retry:5000}") long retryDelay) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<HikariConfig> configs = Binder.get(environment)
+            .bind("org.rd.fullstack.springbootnuxt.datasource.replicas", Bindable.listOf(HikariConfig.class))
+            .orElse(List.of());
+        for (HikariConfig config : configs) {
+            if (config.getPoolName() == null)
+                config.setPoolName("replica-" + (replicas.size() + 1));
+            meterRegistry.ifAvailable(config::setMetricRegistry);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        localReplicaSync.ifAvailable(sync -> replicas.putAll(sync.dataSources()));
+
+        ReplicaRoutingDataSource replicaDataSource = new ReplicaRoutingDataSource(replicas, retryDelay);
+        meterRegistry.ifAvailable(replicaDataSource::bindMetrics);
+        return replicaDataSource;
+    }
+
+    // The DataSource of JPA, JdbcTemplate and the schema initialization.
+    // - Connections by workload (@Workload) on the primary.
+    // - Read-only transactions (@Transactional(readOnly = true)) on the replicas, when there are some:
+    //   the lazy proxy takes the physical connection at the first statement, once the read-only flag is known.
+    // - Transaction control (HSQLDB, database-wide): set before any session opens a transaction.
+    //   MVCC: the readers never wait for the writers, a write conflict is a serialization failure (retried).
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltpDataSource,
+                          @Qualifier("reportingDataSource") DataSource reportingDataSource,
+                          ReplicaRoutingDataSource replicaDataSource,
+                          @Value("${org.rd.fullstack.springbootnuxt.database.transaction-control:MVCC}") String transactionControl) {
+        String mode = transactionControl.trim().toUpperCase();
+        if (! CST_TRANSACTION_CONTROLS.contains(mode))
+            throw new IllegalArgumentException("Unsupported transaction control: " + transactionControl + ".");
+        new JdbcTemplate(oltpDataSource).execute("SET DATABASE TRANSACTION CONTROL " + mode);
+
+        WorkloadRoutingDataSource primary = new WorkloadRoutingDataSource(oltpDataSource, reportingDataSource);
+        primary.afterPropertiesSet();
+        replicaDataSource.setFallback(primary);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        if (replicaDataSource.hasReplicas())
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    // Service layer: the transactions retried on a serialization failure (see TransactionRetry).
+    @Bean
+    TransactionRetry transactionRetry(PlatformTransactionManager transactionManager,
+                                      ObjectProvider<MeterRegistry> meterRegistry,
+                                      @Value("${org.rd.fullstack.springbootnuxt.database.retry.max-attempts:5}") int maxAttempts,
+                                      @Value("${org.rd.fullstack.springbootnuxt.database.retry.backoff:5}") long backoff) {
+        TransactionRetry transactionRetry = new TransactionRetry(transactionManager, maxAttempts, backoff);
+        meterRegistry.ifAvailable(transactionRetry::bindMetrics);
+        return transactionRetry;
+    }
+
+    // @Workload: applied by the infrastructure auto-proxy creator, like @Transactional.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor workloadAdvisor() {
+        return WorkloadRoutingDataSource.advisor();
+    }
+
     @Bean
     CommandLineRunner loadData(PersonRepository personRepository,
                                ProductRepository productRepository,
@@ -41,20 +167,30 @@ public class DatabaseConfig {
             Logger logger = LoggerFactory.getLogger(getClass());
             logger.info("Generating data...");
 
-            // The persons entities.
-            logger.info("Persons ...");
-
-            personRepository.save(new Person("John", "Wick", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Jack", "Sparrow", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Conan", "Barbarian", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Suzan", "Storm", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Johnny", "Cash", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Tony", "Stark", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Sophia", "Madria", new BigDecimal("1000.00")));
-            personRepository.save(new Person("James", "Bond", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Jolene", "Spinoza", new BigDecimal("1000.00")));
-            personRepository.save(new Person("Monica", "Spears", new BigDecimal("1000.00")));
-            personRepository.flush();
+            // Idempotent: a persistent store (file profile) keeps the data of the previous runs.
+            if (personRepository.count() > 0) {
+                logger.info("Persons: already generated.");
+            } else {
+                // The persons entities.
+                logger.info("Persons ...");
+
+                personRepository.save(new Person("John", "Wick", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Jack", "Sparrow", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Conan", "Barbarian", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Suzan", "Storm", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Johnny", "Cash", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Tony", "Stark", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Sophia", "Madria", new BigDecimal("1000.00")));
+                personRepository.save(new Person("James", "Bond", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Jolene", "Spinoza", new BigDecimal("1000.00")));
+                personRepository.save(new Person("Monica", "Spears", new BigDecimal("1000.00")));
+                personRepository.flush();
+            }
+
+            if (productRepository.count() > 0) {
+                logger.info("Products and inventories: already generated.");
+                return;
+            }
 
             // The products entities.
             logger.info("Products ...");
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.config;
+
+import org.rd.fullstack.springbootnuxt.util.ExceptionHandlerGraphQL;
+import org.rd.fullstack.springbootnuxt.util.GraphQLCostAnalyzer;
+import org.rd.fullstack.springbootnuxt.util.GraphQLDocumentCache;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache;
+import org.rd.fullstack.springbootnuxt.util.HttpGetHandlerGraphQl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class GraphQLConfig {
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.document-cache-size:512}")
+    private int documentCacheSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.max-depth:10}")
+    private int maxDepth;
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.max-cost:10000}")
+    private long maxCost;
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.default-list-size:100}")
+    private int defaultListSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.response-cache-ttl:0}")
+    private long responseCacheTtl;
+
+    @Value("${org.rd.fullstack.springbootnuxt.graphql.response-cache-size:256}")
+    private int responseCacheSize;
+
+    @Value("${spring.graphql.http.path:/graphql}")
+    private String graphQlPath;
+
+    public GraphQLConfig() {
+        super();
+    }
+
+    // Parsed/validated documents cache and Automatic Persisted Queries (APQ).
+    @Bean
+    GraphQLDocumentCache graphQLDocumentCache() {
+        return new GraphQLDocumentCache(documentCacheSize);
+    }
+
+    @Bean
+    GraphQlSourceBuilderCustomizer graphQLDocumentCacheCustomizer(GraphQLDocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(graphQL -> graphQL.preparsedDocumentProvider(documentCache));
+    }
+
+    @Bean
+    ExceptionHandlerGraphQL exceptionHandlerGraphQL() {
+        return new ExceptionHandlerGraphQL();
+    }
+
+    // Query depth and cost limits. An Instrumentation bean: registered by the starter.
+    @Bean
+    GraphQLCostAnalyzer graphQLCostAnalyzer(ExceptionHandlerGraphQL exceptionHandler, MeterRegistry meterRegistry) {
+        return new GraphQLCostAnalyzer(maxDepth, maxCost, defaultListSize, exceptionHandler, meterRegistry);
+    }
+
+    // Short-TTL cache of the GET responses (0: disabled), invalidated by the entity writes
+    // (EntityChangeListener: created by Hibernate through the Spring bean container).
+    @Bean
+    GraphQLResponseCache graphQLResponseCache() {
+        return new GraphQLResponseCache(responseCacheTtl, responseCacheSize);
+    }
+
+    // HTTP GET support for /graphql (the starter only supports POST).
+    // The "util" package is not scanned: the handler is declared here.
+    @Bean
+    HttpGetHandlerGraphQl httpGetHandlerGraphQl(WebGraphQlHandler graphQlHandler, GraphQLResponseCache responseCache) {
+        return new HttpGetHandlerGraphQl(graphQlHandler, new ObjectMapper(), responseCache);
+    }
+
+    // Ordered ahead of the starter's graphQlRouterFunction: it owns the path and answers a GET with 405.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    RouterFunction<ServerResponse> graphQlGetRouterFunction(HttpGetHandlerGraphQl handler) {
+        return RouterFunctions.route(RequestPredicates.GET(graphQlPath), handler::handleRequest);
+    }
+}
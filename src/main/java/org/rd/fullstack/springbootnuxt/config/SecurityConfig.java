@@ -22,6 +22,7 @@ import java.util.Arrays;
 import org.rd.fullstack.springbootnuxt.util.AuthentificationTokenFilter;
 import org.rd.fullstack.springbootnuxt.util.Role;
 import org.rd.fullstack.springbootnuxt.util.ExceptionHandlerAuthEntryPoint;
+import org.rd.fullstack.springbootnuxt.util.JwtKeyRing;
 import org.rd.fullstack.springbootnuxt.util.JwtUtils;
 import org.rd.fullstack.springbootnuxt.util.UserDetailsServiceImpl;
 import org.rd.fullstack.springbootnuxt.util.UserUtils;
@@ -40,6 +41,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 
 @Configuration
@@ -72,9 +74,22 @@ public class SecurityConfig {
     @Value("${org.rd.fullstack.springbootnuxt.authorities}")
     private String authorities;
 
+    @Value("${org.rd.fullstack.springbootnuxt.signature:HS256}")
+    private String signature;
+
+    @Value("${org.rd.fullstack.springbootnuxt.key-rotation:86400000}")
+    private long keyRotation;
+
+    @Value("${org.rd.fullstack.springbootnuxt.legacy-hs256:false}")
+    private boolean legacyHs256;
+
     @Bean
     JwtUtils jwtUtils() {
-        return new JwtUtils(secret, expiration, authorities);
+        // HS256: shared secret. EdDSA/ES256: rotating key ring, public keys published on /auth/jwks.
+        if ("HS256".equals(signature))
+            return new JwtUtils(secret, expiration, authorities);
+
+        return new JwtUtils(secret, expiration, authorities, new JwtKeyRing(signature, keyRotation, expiration), legacyHs256);
     }
 
     @Bean
@@ -128,7 +143,10 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf
             .disable());
 
+        // The async (streaming bodies) and error dispatches: the request dispatch was already
+        // authorized, and the JWT filter runs once per request (no context on the re-dispatch).
         http.authorizeHttpRequests(auth -> auth
+            .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
             .requestMatchers(AUTH_WHITELIST).permitAll()
             .anyRequest().authenticated());
 
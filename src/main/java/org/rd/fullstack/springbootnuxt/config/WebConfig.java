@@ -15,14 +15,41 @@
  */
 package org.rd.fullstack.springbootnuxt.config;
 
+import java.time.Duration;
+import java.util.List;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 @Configuration
 //@EnableWebMvc -- This disables all autoconfiguration, including static resource management.
 public class WebConfig {
+
+    // Binary formats for the service-to-service clients (Accept/Content-Type). JSON stays the default.
+    public static final String CST_APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType CST_APPLICATION_SMILE = MediaType.valueOf(CST_APPLICATION_SMILE_VALUE);
+
+    // Nuxt application (see build-web-app.xml). The bundles under _nuxt have a content hash in their names.
+    private static final String   CST_APP_LOCATION    = "classpath:/static/app/";
+    private static final String   CST_ASSETS_LOCATION = "classpath:/static/app/_nuxt/";
+    private static final Duration CST_ASSETS_MAX_AGE  = Duration.ofDays(365);
+
     @Bean
     WebMvcConfigurer forwardToIndex() {
         return new WebMvcConfigurer() {
@@ -46,6 +73,50 @@ public class WebConfig {
                         .addViewController("/app/")                        
                         .setViewName("/app/index.html");
             }
+
+            // Precompressed variants (.br/.gz, see nuxt.config.ts) chosen by Accept-Encoding, else the file itself.
+            // - Hashed bundles: never change, cached forever.
+            // - Other files (index.html, ...): revalidated, they reference the current bundles.
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                registry
+                        .addResourceHandler("/app/_nuxt/**")
+                        .addResourceLocations(CST_ASSETS_LOCATION)
+                        .setCacheControl(CacheControl.maxAge(CST_ASSETS_MAX_AGE).cachePublic().immutable())
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver());
+                registry
+                        .addResourceHandler("/app/**")
+                        .addResourceLocations(CST_APP_LOCATION)
+                        .setCacheControl(CacheControl.noCache().cachePublic())
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver());
+            }
+
+            // CBOR (RFC 8949) and Smile: same object model as JSON, smaller and cheaper to encode/parse.
+            @Override
+            @SuppressWarnings({ "deprecation", "removal" })
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                if (! isSupported(converters, MediaType.APPLICATION_CBOR))
+                    converters.add(new MappingJackson2CborHttpMessageConverter(binaryMapper(new CBORFactory())));
+                if (! isSupported(converters, CST_APPLICATION_SMILE))
+                    converters.add(new MappingJackson2SmileHttpMessageConverter(binaryMapper(new SmileFactory())));
+            }
         };
     }
+
+    private static boolean isSupported(List<HttpMessageConverter<?>> converters, MediaType mediaType) {
+        return converters.stream().anyMatch(converter -> converter.getSupportedMediaTypes().contains(mediaType));
+    }
+
+    // Same settings as the JSON mapper (see JsonMapper).
+    public static ObjectMapper binaryMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        objectMapper.configure(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS, false);
+        objectMapper.findAndRegisterModules();
+        return objectMapper;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.rd.fullstack.springbootnuxt.config.WebConfig;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/*
+ * Class level @RequestMapping of the API controllers: the response media types (JSON, CBOR, Smile)
+ * are declared once here, for all the handlers of the controller.
+ * - An annotation cannot take a String[] constant, hence this composed annotation.
+ * - A handler with its own "produces" (text/event-stream, ...) overrides it.
+ * - No "consumes" at the class level: it would refuse (415) the requests without a body.
+ *   A @RequestBody is read by the registered converters (WebConfig), the other types get a 415.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@RequestMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, WebConfig.CST_APPLICATION_SMILE_VALUE })
+public @interface ApiMapping {
+
+    @AliasFor(annotation = RequestMapping.class, attribute = "path")
+    String[] value() default {};
+}
@@ -15,10 +15,14 @@
  */
 package org.rd.fullstack.springbootnuxt.controller;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.rd.fullstack.springbootnuxt.dto.LoginRequest;
 import org.rd.fullstack.springbootnuxt.dto.MessageResponse;
 import org.rd.fullstack.springbootnuxt.util.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -30,7 +34,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,10 +41,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 @CrossOrigin
 @RestController
-@RequestMapping("/auth")
+@ApiMapping("/auth")
 @Tag(name = "AuthController", description = "Application controller for authentication & authorization.")
 public class AuthController {
 
+    static final long CST_JWKS_MAX_AGE = 300; // Seconds. Less than the key rotation period.
+
     public AuthController() {
         super();
     }
@@ -52,21 +57,28 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
-    @GetMapping(value = "/ping", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/ping")
     @Operation(summary = "Report internal status - Simple PING.", description = "MessageResponse.class")
     public ResponseEntity<MessageResponse> ping() {
         return ResponseEntity.ok(new MessageResponse("Ping !!!"));
     }
 
-    @GetMapping(value = "/token/{jwtString}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/token/{jwtString}")
     @Operation(summary = "Decode a JWT token.", description = "MessageResponse.class")
     public ResponseEntity<MessageResponse> decode(@PathVariable("jwtString") String jwtString) {
         String clearToken = jwtUtils.decodeJwtToken(jwtString);
         return ResponseEntity.ok(new MessageResponse(clearToken));
     }
 
-    @PostMapping(value = "/token", consumes = MediaType.APPLICATION_JSON_VALUE,
-                                   produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/jwks", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get the public keys (JWKS) to verify the JWT tokens.", description = "Map.class")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.maxAge(CST_JWKS_MAX_AGE, TimeUnit.SECONDS).cachePublic())
+                             .body(jwtUtils.getJwkSet());
+    }
+
+    @PostMapping("/token")
     @Operation(summary = "Authenticate a user to obtain a JWT/API token.", description = "MessageResponse.class")
     public ResponseEntity<MessageResponse> authenticateUser(@RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.rd.fullstack.springbootnuxt.srv.ExportSrv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@CrossOrigin
+@RestController
+@RequestMapping("/api")
+@SecurityRequirement(name = "SecureAPI")
+public class ExportController {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private ExportSrv exportSrv;
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping(value = "/export/{entity}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export the persons, products or inventories (NDJSON, one row per line, id order). " +
+                         "Incremental: the rows after the \"since\" id. Gzip if accepted by the client.",
+               description = "Person.class, Product.class, Inventory.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "404", description = "Unknown entity."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<StreamingResponseBody> exportRows(@PathVariable("entity") String entity,
+                                                            @RequestParam(name = "since", defaultValue = "-1") long since,
+                                                            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            if (! ExportSrv.isSupported(entity))
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            // Compressed on the fly: the rows are never buffered, compressed or not.
+            boolean bGzip = acceptsGzip(acceptEncoding);
+            StreamingResponseBody body = output -> {
+                OutputStream target = bGzip ? new GZIPOutputStream(output, 8192) : output;
+                long count = exportSrv.exportRows(entity, since, target);
+                if (target instanceof GZIPOutputStream gzip)
+                    gzip.finish();
+                logger.debug("Export {} (since {}): {} rows.", entity, since, count);
+            };
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                                                               .contentType(MediaType.APPLICATION_NDJSON)
+                                                               .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (bGzip)
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return builder.body(body);
+        } catch (Exception ex) {
+            logger.error("Export exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Accept-Encoding (RFC 9110): "gzip" (or "*") with a q-value above 0. "gzip;q=0" refuses it.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        Double gzip = null;
+        Double any  = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        q = 0.0; // Invalid weight: not acceptable.
+                    }
+                }
+            }
+
+            if ("gzip".equals(coding) || "x-gzip".equals(coding))
+                gzip = q;
+            else if ("*".equals(coding))
+                any = q;
+        }
+        double q = (gzip != null) ? gzip : ((any != null) ? any : 0.0);
+        return q > 0.0;
+    }
+}
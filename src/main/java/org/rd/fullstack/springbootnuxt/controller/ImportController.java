@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.rd.fullstack.springbootnuxt.srv.ImportSrv;
+import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+
+@CrossOrigin
+@RestController
+@RequestMapping("/api")
+@SecurityRequirement(name = "SecureAPI")
+public class ImportController {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(ImportController.class);
+
+    @Autowired
+    private ImportSrv importSrv;
+
+    @PreAuthorize("hasRole('ROLE_INSERT') and hasRole('ROLE_UPDATE')")
+    @PostMapping(value = "/import/{entity}", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE },
+                                             produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import (upsert) products or inventories from a CSV (with header) or NDJSON stream. " +
+                         "Products: code, description, price. Inventories: productId, qty.",
+               description = "ImportProgress.class (one line per batch, then the summary)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. See the progress lines (error)."),
+        @ApiResponse(responseCode = "404", description = "Unknown entity."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<StreamingResponseBody> importRows(@PathVariable("entity") String entity,
+                                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            HttpServletRequest request) {
+        try {
+            if (! ImportSrv.isSupported(entity))
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            StreamingResponseBody body = output -> importSrv.importRows(entity, mediaType, request.getInputStream(),
+                                                                        progress -> write(output, JsonMapper.writeToJson(progress)));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        } catch (Exception ex) {
+            logger.error("Import exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // One line per batch, flushed: the client follows the progress.
+    private static void write(OutputStream output, String line) {
+        try {
+            output.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            output.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
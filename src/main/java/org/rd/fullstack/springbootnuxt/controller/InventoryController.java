@@ -21,10 +21,18 @@ import java.util.Optional;
 
 import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
 import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
 import org.rd.fullstack.springbootnuxt.dto.InventoryView;
+import org.rd.fullstack.springbootnuxt.dto.LookupResult;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
+import org.rd.fullstack.springbootnuxt.dto.TransferLeg;
+import org.rd.fullstack.springbootnuxt.srv.InventoryQtySrv;
+import org.rd.fullstack.springbootnuxt.srv.InventoryStreamSrv;
+import org.rd.fullstack.springbootnuxt.srv.LookupSrv;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -36,9 +44,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -47,7 +56,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
 @CrossOrigin
 @RestController
-@RequestMapping("/api")
+@ApiMapping("/api")
 @SecurityRequirement(name = "SecureAPI")
 public class InventoryController {
     private static final Logger logger = 
@@ -56,8 +65,17 @@ public class InventoryController {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private LookupSrv lookupSrv;
+
+    @Autowired
+    private InventoryStreamSrv inventoryStreamSrv;
+
+    @Autowired
+    private InventoryQtySrv inventoryQtySrv;
+
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/inventories", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/inventories")
     @Operation(summary = "Get the inventories list.", description = "Inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -84,7 +102,7 @@ public class InventoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/inventories/{inventoryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/inventories/{inventoryId}")
     @Operation(summary = "Get a inventory by his or her identifier.", description = "Inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -104,9 +122,40 @@ public class InventoryController {
         }
     }
 
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping(value = "/inventories", params = "ids")
+    @Operation(summary = "Get a batch of inventories by their identifiers (ids=1,2,3).", description = "LookupResult.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The unknown ids are in missing."),
+        @ApiResponse(responseCode = "400", description = "No ids or too many ids."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<LookupResult<Inventory>> getBatch(@RequestParam(name="ids") List<Long> ids) {
+        return lookup(ids);
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @PostMapping("/inventories/lookup")
+    @Operation(summary = "Get a batch of inventories by their identifiers (body: [1,2,3]).", description = "LookupResult.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The unknown ids are in missing."),
+        @ApiResponse(responseCode = "400", description = "No ids or too many ids."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<LookupResult<Inventory>> lookup(@RequestBody List<Long> ids) {
+        try {
+            return new ResponseEntity<>(lookupSrv.lookup(ids, inventoryRepository, Inventory::getInventoryId), HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Lookup rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Lookup exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PreAuthorize("hasRole('ROLE_INSERT')")
-    @PostMapping(value = "/inventories", consumes = MediaType.APPLICATION_JSON_VALUE,
-                                         produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping("/inventories")
     @Operation(summary = "Add a new inventory.", description = "Inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Success|Created."),
@@ -125,12 +174,12 @@ public class InventoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_UPDATE')")
-    @PutMapping(value = "/inventories/{inventoryId}", consumes = MediaType.APPLICATION_JSON_VALUE,
-                                                      produces = MediaType.APPLICATION_JSON_VALUE)
+    @PutMapping("/inventories/{inventoryId}")
     @Operation(summary = "Update a inventory.", description = "Inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
         @ApiResponse(responseCode = "404", description = "Unknown inventory."),
+        @ApiResponse(responseCode = "409", description = "Quantity below the reserved (held) quantity."),
         @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
     })
     public ResponseEntity<Inventory> update(@PathVariable("inventoryId") long inventoryId, @RequestBody Inventory majinventory) {
@@ -142,14 +191,65 @@ public class InventoryController {
             } else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
+        } catch (DataIntegrityViolationException ex) { // INVENTORY_HELD_CK: QTY >= HELD.
+                logger.warn("Update rejected: {}.", ex.getMessage());
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (Exception ex) {
                 logger.error("Update exception: {}.", ex.getMessage(), ex);
                 return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/inventories/{inventoryId}/withdraw")
+    @Operation(summary = "Withdraw a quantity (checkout line item): one atomic update, never negative.", description = "StockAdjustment.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The resulting quantity."),
+        @ApiResponse(responseCode = "400", description = "Invalid quantity."),
+        @ApiResponse(responseCode = "409", description = "Insufficient stock or unknown inventory."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<StockAdjustment> withdraw(@PathVariable("inventoryId") long inventoryId, @RequestParam("qty") long qty) {
+        try {
+            Optional<StockAdjustment> adjustment = inventoryQtySrv.withdrawQTY(inventoryId, qty);
+            return adjustment.map(value ->
+                    new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(()
+                        -> new ResponseEntity<>(HttpStatus.CONFLICT));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Withdraw rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Withdraw exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/inventories/transfer")
+    @Operation(summary = "Transfer stock between inventories: all the legs or none, in one transaction.", description = "InventoryChange.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The resulting quantities."),
+        @ApiResponse(responseCode = "400", description = "No legs, too many legs or invalid leg."),
+        @ApiResponse(responseCode = "409", description = "Insufficient stock or unknown inventory: nothing transferred."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<List<InventoryChange>> transfer(@RequestBody List<TransferLeg> legs) {
+        try {
+            Optional<List<InventoryChange>> changes = inventoryQtySrv.transfer(legs);
+            return changes.map(value ->
+                    new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(()
+                        -> new ResponseEntity<>(HttpStatus.CONFLICT));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Transfer rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Transfer exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PreAuthorize("hasRole('ROLE_DELETE')")
-    @DeleteMapping(value = "/inventories/{inventoryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @DeleteMapping("/inventories/{inventoryId}")
     @Operation(summary = "Delete a inventory.", description = "inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Deleted completed."),
@@ -172,7 +272,7 @@ public class InventoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_DELETE')")
-    @DeleteMapping(value = "/inventories", produces = MediaType.APPLICATION_JSON_VALUE)
+    @DeleteMapping("/inventories")
     @Operation(summary = "Destroy all inventorys.", description = "inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Deleted all inventorys."),
@@ -190,7 +290,7 @@ public class InventoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/inventories/view/{inventoryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/inventories/view/{inventoryId}")
     @Operation(summary = "Get a inventory by his or her identifier.", description = "Inventory.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -210,7 +310,7 @@ public class InventoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/inventories/view", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/inventories/view")
     @Operation(summary = "Get the inventories list with the product details.", description = "InventoryView.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -231,4 +331,22 @@ public class InventoryController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping(value = "/inventories/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the committed inventory changes (Server-Sent Events). " +
+                         "Resume with the Last-Event-ID header. A \"reset\" event means: reload the inventories.",
+               description = "InventoryChange.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return new ResponseEntity<>(inventoryStreamSrv.subscribe(lastEventId), HttpStatus.OK);
+        } catch (Exception ex) {
+            logger.error("Stream exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.srv.InventoryEventsSrv;
+import org.rd.fullstack.springbootnuxt.util.KeysetPagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+import reactor.core.publisher.Flux;
+
+@Controller
+public class InventoryGraphQLController {
+
+    private static final String CST_KEY = "inventoryId";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryEventsSrv inventoryEventsSrv;
+
+    public InventoryGraphQLController() {
+        super();
+    }
+
+    // Relay connection (first/after): one keyset page, never the whole table.
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @QueryMapping
+    public Window<Inventory> inventories(ScrollSubrange subrange) {
+        List<Inventory> rows = inventoryRepository.findPageAfter(KeysetPagination.after(subrange, CST_KEY),
+                                                                 KeysetPagination.limit(subrange));
+        return KeysetPagination.window(rows, subrange, CST_KEY, Inventory::getInventoryId);
+    }
+
+    // Computed only when selected.
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @SchemaMapping(typeName = "InventoryConnection", field = "totalCount")
+    public long totalCount() {
+        return inventoryRepository.count();
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @QueryMapping
+    public Optional<Inventory> inventory(@Argument("id") Long id) {
+        return inventoryRepository.findById(id);
+    }
+
+    // Subscriptions: filtered in memory on the single publisher (no database polling).
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @SubscriptionMapping
+    public Flux<InventoryChange> quantityChanged(@Argument("productId") Long productId) {
+        return inventoryEventsSrv.changes(InventoryEventsSrv.product(productId));
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @SubscriptionMapping
+    public Flux<InventoryChange> lowStock(@Argument("threshold") long threshold, @Argument("productId") Long productId) {
+        return inventoryEventsSrv.changes(InventoryEventsSrv.product(productId)
+                                                            .and(InventoryEventsSrv.lowStock(threshold)));
+    }
+
+    // Inventory -> Product relation (DataLoader).
+    // Called once per level with all the inventories: one "IN (...)" query instead of N queries.
+    @BatchMapping(typeName = "Inventory", field = "product")
+    public Map<Inventory, Product> product(List<Inventory> inventories) {
+        Set<Long> productIds = inventories.stream()
+                                          .map(Inventory::getProductId)
+                                          .collect(Collectors.toSet());
+
+        Map<Long, Product> products = productRepository.findAllById(productIds)
+                                                       .stream()
+                                                       .collect(Collectors.toMap(Product::getProductId, product -> product));
+
+        Map<Inventory, Product> result = new HashMap<>();
+        inventories.forEach(inventory -> {
+            Product product = products.get(inventory.getProductId());
+            if (product != null)
+                result.put(inventory, product);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.util.List;
+
+import org.rd.fullstack.springbootnuxt.dto.JournalReplay;
+import org.rd.fullstack.springbootnuxt.srv.JournalSrv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@CrossOrigin
+@RestController
+@ApiMapping("/api")
+@SecurityRequirement(name = "SecureAPI")
+public class JournalController {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(JournalController.class);
+
+    @Autowired
+    private JournalSrv journalSrv;
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping("/journal/replay")
+    @Operation(summary = "Replay the stock journal and compare the quantities with the inventories (audit).", description = "JournalReplay.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "503", description = "Stock journal disabled."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<JournalReplay> audit() {
+        try {
+            if (! journalSrv.isEnabled())
+                return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            return new ResponseEntity<>(journalSrv.audit(), HttpStatus.OK);
+        } catch (Exception ex) {
+            logger.error("Journal audit exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/journal/replay")
+    @Operation(summary = "Replay the stock journal and write the rebuilt quantities to the given inventories (ids from an audit).", description = "JournalReplay.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "400", description = "No inventory ids."),
+        @ApiResponse(responseCode = "503", description = "Stock journal disabled."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<JournalReplay> rebuild(@RequestBody(required = false) List<Long> inventoryIds) {
+        try {
+            if (! journalSrv.isEnabled())
+                return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            return new ResponseEntity<>(journalSrv.rebuild(inventoryIds), HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Journal rebuild rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Journal rebuild exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/journal/snapshot")
+    @Operation(summary = "Write a stock journal snapshot and delete the segments it covers.", description = "Long.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The snapshot sequence."),
+        @ApiResponse(responseCode = "503", description = "Stock journal disabled."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<Long> snapshot() {
+        try {
+            if (! journalSrv.isEnabled())
+                return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            return new ResponseEntity<>(journalSrv.snapshot(), HttpStatus.OK);
+        } catch (Exception ex) {
+            logger.error("Journal snapshot exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.util.List;
+
+import org.rd.fullstack.springbootnuxt.dto.LowStock;
+import org.rd.fullstack.springbootnuxt.srv.LowStockSrv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@CrossOrigin
+@RestController
+@ApiMapping("/api")
+@SecurityRequirement(name = "SecureAPI")
+public class LowStockController {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(LowStockController.class);
+
+    @Autowired
+    private LowStockSrv lowStockSrv;
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping("/inventories/low-stock")
+    @Operation(summary = "Get the inventories at or below their low stock threshold, lowest quantity first.", description = "LowStock.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "204", description = "No low stock."),
+        @ApiResponse(responseCode = "400", description = "Invalid limit."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<List<LowStock>> getLowStock(@RequestParam(name="threshold", required = false) Long threshold,
+                                                      @RequestParam(name="limit", defaultValue = "100") int limit) {
+        try {
+            List<LowStock> lowStock = lowStockSrv.lowStock(threshold, limit);
+            if (lowStock.isEmpty())
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+
+            return new ResponseEntity<>(lowStock, HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Low stock rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Low stock exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PutMapping("/products/{productId}/low-stock-threshold")
+    @Operation(summary = "Set the low stock threshold of a product (low: QTY <= threshold).", description = "Long.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The threshold."),
+        @ApiResponse(responseCode = "400", description = "Invalid threshold."),
+        @ApiResponse(responseCode = "404", description = "Unknown product."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<Long> setThreshold(@PathVariable("productId") long productId, @RequestParam("threshold") long threshold) {
+        try {
+            if (! lowStockSrv.setThreshold(productId, threshold))
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            return new ResponseEntity<>(threshold, HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Low stock threshold rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Low stock threshold exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -20,12 +20,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.rd.fullstack.springbootnuxt.dao.PersonRepository;
+import org.rd.fullstack.springbootnuxt.dto.LookupResult;
 import org.rd.fullstack.springbootnuxt.dto.Person;
+import org.rd.fullstack.springbootnuxt.srv.LookupSrv;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -35,7 +36,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -46,7 +46,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
 @CrossOrigin
 @RestController
-@RequestMapping("/api")
+@ApiMapping("/api")
 @SecurityRequirement(name = "SecureAPI")
 public class PersonController {
     private static final Logger logger = 
@@ -55,8 +55,11 @@ public class PersonController {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private LookupSrv lookupSrv;
+
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/persons", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/persons")
     @Operation(summary = "Get the person list.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -83,7 +86,7 @@ public class PersonController {
     }
 
     @PreAuthorize("hasRole('ROLE_SELECT')")
-    @GetMapping(value = "/persons/{personId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/persons/{personId}")
     @Operation(summary = "Get a person by his or her identifier.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -102,9 +105,40 @@ public class PersonController {
         }
     }
 
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping(value = "/persons", params = "ids")
+    @Operation(summary = "Get a batch of persons by their identifiers (ids=1,2,3).", description = "LookupResult.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The unknown ids are in missing."),
+        @ApiResponse(responseCode = "400", description = "No ids or too many ids."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<LookupResult<Person>> getBatch(@RequestParam(name="ids") List<Long> ids) {
+        return lookup(ids);
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @PostMapping("/persons/lookup")
+    @Operation(summary = "Get a batch of persons by their identifiers (body: [1,2,3]).", description = "LookupResult.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The unknown ids are in missing."),
+        @ApiResponse(responseCode = "400", description = "No ids or too many ids."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<LookupResult<Person>> lookup(@RequestBody List<Long> ids) {
+        try {
+            return new ResponseEntity<>(lookupSrv.lookup(ids, personRepository, Person::getPersonId), HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Lookup rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Lookup exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PreAuthorize("hasRole('ROLE_INSERT')")
-    @PostMapping(value = "/persons", consumes = MediaType.APPLICATION_JSON_VALUE,
-                                     produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping("/persons")
     @Operation(summary = "Add a new person.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Success|Created."),
@@ -122,8 +156,7 @@ public class PersonController {
     }
 
     @PreAuthorize("hasRole('ROLE_UPDATE')")
-    @PutMapping(value = "/persons/{personId}", consumes = MediaType.APPLICATION_JSON_VALUE,
-                                              produces = MediaType.APPLICATION_JSON_VALUE)
+    @PutMapping("/persons/{personId}")
     @Operation(summary = "Update a person.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success|OK."),
@@ -146,7 +179,7 @@ public class PersonController {
     }
 
     @PreAuthorize("hasRole('ROLE_DELETE')")
-    @DeleteMapping(value = "/persons/{personId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @DeleteMapping("/persons/{personId}")
     @Operation(summary = "Delete a person.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Deleted completed."),
@@ -169,7 +202,7 @@ public class PersonController {
     }
 
     @PreAuthorize("hasRole('ROLE_DELETE')")
-    @DeleteMapping(value = "/persons", produces = MediaType.APPLICATION_JSON_VALUE)
+    @DeleteMapping("/persons")
     @Operation(summary = "Destroy all persons.", description = "Person.class")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Deleted all persons."),
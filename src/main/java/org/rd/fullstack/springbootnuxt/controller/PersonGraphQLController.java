@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.rd.fullstack.springbootnuxt.dao.PersonRepository;
+import org.rd.fullstack.springbootnuxt.dto.Person;
+import org.rd.fullstack.springbootnuxt.util.KeysetPagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class PersonGraphQLController {
+
+    private static final String CST_KEY = "personId";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    public PersonGraphQLController() {
+        super();
+    }
+
+    // Relay connection (first/after): one keyset page, never the whole table.
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @QueryMapping
+    public Window<Person> persons(ScrollSubrange subrange) {
+        List<Person> rows = personRepository.findPageAfter(KeysetPagination.after(subrange, CST_KEY),
+                                                           KeysetPagination.limit(subrange));
+        return KeysetPagination.window(rows, subrange, CST_KEY, Person::getPersonId);
+    }
+
+    // Computed only when selected.
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @SchemaMapping(typeName = "PersonConnection", field = "totalCount")
+    public long totalCount() {
+        return personRepository.count();
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @QueryMapping
+    public Optional<Person> person(@Argument("id") Long id) {
+        return personRepository.findById(id);
+    }
+}
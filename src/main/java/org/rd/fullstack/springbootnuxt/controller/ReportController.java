@@ -29,6 +29,7 @@ import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
 import org.rd.fullstack.springbootnuxt.dto.InventoryView;
 import org.rd.fullstack.springbootnuxt.dto.InventsReport;
 import org.rd.fullstack.springbootnuxt.util.JasperUtils;
+import org.rd.fullstack.springbootnuxt.util.Workload;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -59,6 +60,7 @@ import net.sf.jasperreports.json.data.JsonDataSource;
 @RestController
 @RequestMapping("/report")
 @SecurityRequirement(name = "SecureAPI")
+@Workload(Workload.Type.REPORTING)
 public class ReportController {
 
     static final String CST_TITLE            = "Inventory report";
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.controller;
+
+import java.util.Optional;
+
+import org.rd.fullstack.springbootnuxt.dto.Reservation;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
+import org.rd.fullstack.springbootnuxt.srv.ReservationSrv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@CrossOrigin
+@RestController
+@ApiMapping("/api")
+@SecurityRequirement(name = "SecureAPI")
+public class ReservationController {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(ReservationController.class);
+
+    @Autowired
+    private ReservationSrv reservationSrv;
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/reservations")
+    @Operation(summary = "Reserve (hold) a quantity until confirmed, released or expired.", description = "Reservation.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Created. The hold and its expiration."),
+        @ApiResponse(responseCode = "400", description = "Invalid quantity."),
+        @ApiResponse(responseCode = "409", description = "Insufficient available stock or unknown inventory."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<Reservation> reserve(@RequestParam("inventoryId") long inventoryId, @RequestParam("qty") long qty) {
+        try {
+            Optional<Reservation> reservation = reservationSrv.reserve(inventoryId, qty);
+            return reservation.map(value ->
+                    new ResponseEntity<>(value, HttpStatus.CREATED)).orElseGet(()
+                        -> new ResponseEntity<>(HttpStatus.CONFLICT));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Reserve rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception ex) {
+            logger.error("Reserve exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/reservations/{reservationId}/confirm")
+    @Operation(summary = "Confirm a reservation: the held quantity is withdrawn.", description = "StockAdjustment.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK. The resulting quantity."),
+        @ApiResponse(responseCode = "404", description = "Unknown, released or expired reservation."),
+        @ApiResponse(responseCode = "409", description = "Insufficient stock (QTY lowered below the hold, store without the check constraint)."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<StockAdjustment> confirm(@PathVariable("reservationId") String reservationId) {
+        try {
+            if (reservationSrv.find(reservationId).isEmpty())
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            Optional<StockAdjustment> adjustment = reservationSrv.confirm(reservationId);
+            return adjustment.map(value ->
+                    new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(()
+                        -> new ResponseEntity<>(HttpStatus.CONFLICT));
+        } catch (IllegalStateException ex) { // Expired or released since the find.
+            logger.warn("Confirm rejected: {}.", ex.getMessage());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (Exception ex) {
+            logger.error("Confirm exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_UPDATE')")
+    @PostMapping("/reservations/{reservationId}/release")
+    @Operation(summary = "Release a reservation: the held quantity is available again.", description = "Reservation.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Released."),
+        @ApiResponse(responseCode = "404", description = "Unknown, released or expired reservation."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<HttpStatus> release(@PathVariable("reservationId") String reservationId) {
+        try {
+            return new ResponseEntity<>(reservationSrv.release(reservationId) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
+        } catch (Exception ex) {
+            logger.error("Release exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreAuthorize("hasRole('ROLE_SELECT')")
+    @GetMapping("/inventories/{inventoryId}/available")
+    @Operation(summary = "Get the available quantity: QTY minus the active reservations.", description = "Long.class")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success|OK."),
+        @ApiResponse(responseCode = "404", description = "Unknown inventory."),
+        @ApiResponse(responseCode = "500", description = "Exception/Internal error. Call support.")
+    })
+    public ResponseEntity<Long> available(@PathVariable("inventoryId") long inventoryId) {
+        try {
+            return new ResponseEntity<>(reservationSrv.available(inventoryId), HttpStatus.OK);
+        } catch (IllegalArgumentException ex) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (Exception ex) {
+            logger.error("Available exception: {}.", ex.getMessage(), ex);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
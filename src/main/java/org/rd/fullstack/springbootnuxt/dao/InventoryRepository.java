@@ -20,11 +20,15 @@ import java.util.Optional;
 
 import org.rd.fullstack.springbootnuxt.dto.Inventory;
 import org.rd.fullstack.springbootnuxt.dto.InventoryView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+// Read-only transactions by default: the views and queries may run on a read replica (see DatabaseConfig).
+@Transactional(readOnly = true)
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByProductId(Long productId);
 
@@ -56,6 +60,7 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     List<InventoryView> findAllView();
 
     @Modifying
+    @Transactional
     @Query (""" 
                UPDATE Inventory inv 
                   SET inv.qty = (inv.qty + :qty) 
@@ -64,10 +69,20 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     int debitQTY(@Param("qty") Long qty, @Param("id") Long id);
 
     @Modifying
+    @Transactional
     @Query (""" 
                UPDATE Inventory inv 
                   SET inv.qty = (inv.qty - :qty) 
                 WHERE inv.inventoryId = :id
             """)
     int creditQTY(@Param("qty") Long qty, @Param("id") Long id);
+
+    // Keyset pagination (GraphQL connections, see KeysetPagination): no OFFSET.
+    @Query("""
+              SELECT inv
+                FROM Inventory inv
+               WHERE inv.inventoryId > :after
+            ORDER BY inv.inventoryId
+          """)
+    List<Inventory> findPageAfter(@Param("after") long after, Limit limit);
 }
\ No newline at end of file
@@ -18,9 +18,23 @@ package org.rd.fullstack.springbootnuxt.dao;
 import java.util.List;
 
 import org.rd.fullstack.springbootnuxt.dto.Person;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+@Transactional(readOnly = true)
 public interface PersonRepository extends JpaRepository<Person, Long> {
     List<Person> findByFirstNameContaining(String firstName);
     List<Person> findByLastNameContaining(String LastName);
+
+    // Keyset pagination (GraphQL connections, see KeysetPagination): no OFFSET.
+    @Query("""
+              SELECT per
+                FROM Person per
+               WHERE per.personId > :after
+            ORDER BY per.personId
+          """)
+    List<Person> findPageAfter(@Param("after") long after, Limit limit);
 }
\ No newline at end of file
@@ -18,8 +18,22 @@ package org.rd.fullstack.springbootnuxt.dao;
 import java.util.List;
 
 import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCodeContaining(String code);
+
+    // Keyset pagination (GraphQL connections, see KeysetPagination): no OFFSET.
+    @Query("""
+              SELECT prd
+                FROM Product prd
+               WHERE prd.productId > :after
+            ORDER BY prd.productId
+          """)
+    List<Product> findPageAfter(@Param("after") long after, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.dto;
+
+// One line of the import report (NDJSON): one per batch, then the summary (done = true).
+public record ImportProgress(
+    String entity,
+    int batch,
+    int rows,        // Rows of this batch.
+    long totalRows,  // Rows committed so far.
+    long elapsed,    // ms.
+    boolean done,
+    String error
+) {}
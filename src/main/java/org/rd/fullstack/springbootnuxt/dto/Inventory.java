@@ -15,14 +15,21 @@
  */
 package org.rd.fullstack.springbootnuxt.dto;
 
+import org.rd.fullstack.springbootnuxt.util.EntityChangeListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@EntityListeners(EntityChangeListener.class) // GraphQL response cache, InventoryChange events.
 @Table(name = "inventory")
 public class Inventory {
     @Id
@@ -42,11 +49,17 @@ public class Inventory {
     @Column(name = "qty", nullable = false)
     private Long qty;
 
+    // The quantity read from the database (see EntityChangeListener): the "before" of a change.
+    @Transient
+    @JsonIgnore
+    private Long loadedQty;
+
     public Inventory() {
         super();
         inventoryId = null;
         productId   = null;
         qty         = null;
+        loadedQty   = null;
     }
 
     public Inventory(Long productId, Long qty) {
@@ -79,6 +92,14 @@ public class Inventory {
         this.qty = qty;
     }
 
+    public Long getLoadedQty() {
+        return loadedQty;
+    }
+
+    public void setLoadedQty(Long loadedQty) {
+        this.loadedQty = loadedQty;
+    }
+
     public void setInventory(Inventory majinventory) {
         this.inventoryId = majinventory.getInventoryId();
         this.productId   = majinventory.getProductId();
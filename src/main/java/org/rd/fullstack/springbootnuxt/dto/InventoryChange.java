@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.dto;
+
+// Inventory write, published after the commit (see EntityChangeListener, InventoryStreamSrv).
+public record InventoryChange(
+    Long inventoryId,
+    Long productId,
+    Long qty,
+    Long previousQty, // Null: unknown or new inventory.
+    Type type
+) {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static InventoryChange of(Inventory inventory, Type type) {
+        return new InventoryChange(inventory.getInventoryId(), inventory.getProductId(), inventory.getQty(),
+                                   inventory.getLoadedQty(), type);
+    }
+}
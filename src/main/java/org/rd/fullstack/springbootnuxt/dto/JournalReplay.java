@@ -0,0 +1,26 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.dto;
+
+import java.util.List;
+
+// Journal replay (see JournalSrv): the quantities rebuilt up to "sequence", compared with INVENTORY.
+public record JournalReplay(
+    long sequence,
+    int inventories,
+    List<Long> mismatches, // Inventory ids: different quantity, or only in the journal or in the table.
+    int applied            // Rows written by the rebuild (0: audit only).
+) {}
@@ -17,14 +17,18 @@ package org.rd.fullstack.springbootnuxt.dto;
 
 import java.math.BigDecimal;
 
+import org.rd.fullstack.springbootnuxt.util.EntityChangeListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
 @Entity
+@EntityListeners(EntityChangeListener.class) // Invalidates the GraphQL response cache.
 @Table(name = "product")
 public class Product {
     @Id
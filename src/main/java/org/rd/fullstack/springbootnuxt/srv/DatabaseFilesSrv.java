@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/*
+ * Persistent HSQLDB database (file profile, see application-file.yml).
+ * - CACHED tables: the rows are on disk, only "cache-rows" rows (or "cache-size" KB) stay on the heap.
+ * - NIO (memory-mapped) data file up to "nio-max-size" MB.
+ * - Checkpoints: automatic when the log reaches "log-size" MB, and every "checkpoint-interval" ms.
+ *   A checkpoint writes the cached rows and resets the log: shorter restarts (log replay).
+ * The SET FILES settings are persistent: applied at each start, some of them at the next open.
+ * Disabled (in-memory database): nothing to do.
+ */
+@Service
+public class DatabaseFilesSrv implements SmartLifecycle {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(DatabaseFilesSrv.class);
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.cache-rows:50000}")
+    private int cacheRows;
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.nio-max-size:256}")
+    private int nioMaxSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.log-size:64}")
+    private int logSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.database.files.checkpoint-interval:600000}")
+    private long checkpointInterval;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicBoolean running;
+    private ScheduledExecutorService scheduler;
+
+    public DatabaseFilesSrv() {
+        super();
+        running = new AtomicBoolean(false);
+    }
+
+    public void checkpoint() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("CHECKPOINT");
+        logger.info("Database checkpoint: {} ms.", System.currentTimeMillis() - start);
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (Exception ex) {
+            logger.error("Database checkpoint exception: {}.", ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (! enabled || ! running.compareAndSet(false, true)) 
+            return;
+
+        logger.info("Starting DatabaseFilesSrv.");
+        List.of("SET FILES CACHE ROWS " + cacheRows,
+                "SET FILES CACHE SIZE " + cacheSize,
+                "SET FILES NIO TRUE",
+                "SET FILES NIO SIZE " + nioMaxSize,
+                "SET FILES LOG SIZE " + logSize).forEach(jdbcTemplate::execute);
+
+        if (checkpointInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("database-checkpoint").daemon(true).factory());
+            scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointInterval, checkpointInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
+            return;
+
+        logger.info("Stopping DatabaseFilesSrv.");
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        checkpointQuietly(); // Short restart: nothing to replay.
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.rd.fullstack.springbootnuxt.util.Workload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+/*
+ * Streaming NDJSON export (GET /api/export/{entity}).
+ * - JDBC cursor (fetch size): the rows are written as they are read, nothing is kept in memory.
+ * - Incremental extracts: "since" (id), the rows with a greater id, in id order.
+ *   Default -1: all the rows (the HSQLDB identities start at 0).
+ * - The JSON field names are the entity ones (PERSON_ID -> personId).
+ */
+@Service
+@Workload(Workload.Type.REPORTING)
+public class ExportSrv {
+
+    public static final String CST_PERSONS     = "persons";
+    public static final String CST_PRODUCTS    = "products";
+    public static final String CST_INVENTORIES = "inventories";
+
+    private static final Map<String, String> CST_QUERIES = Map.of(
+        CST_PERSONS,     "SELECT PERSON_ID, FIRST_NAME, LAST_NAME, BALANCE FROM PERSON WHERE PERSON_ID > ? ORDER BY PERSON_ID",
+        CST_PRODUCTS,    "SELECT PRODUCT_ID, CODE, DESCRIPTION, PRICE FROM PRODUCT WHERE PRODUCT_ID > ? ORDER BY PRODUCT_ID",
+        CST_INVENTORIES, "SELECT INVENTORY_ID, PRODUCT_ID, QTY FROM INVENTORY WHERE INVENTORY_ID > ? ORDER BY INVENTORY_ID");
+
+    @Value("${org.rd.fullstack.springbootnuxt.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final JsonFactory jsonFactory;
+
+    public ExportSrv() {
+        super();
+        // The output stream belongs to the caller (gzip: finished by the caller).
+        jsonFactory = JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+    }
+
+    public static boolean isSupported(String entity) {
+        return CST_QUERIES.containsKey(entity);
+    }
+
+    // Returns the number of rows written.
+    public long exportRows(String entity, long since, OutputStream output) throws IOException {
+        String sql = CST_QUERIES.get(entity);
+        if (sql == null)
+            throw new IllegalArgumentException("Unsupported entity: " + entity + ".");
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            long[] count = { 0L };
+            String[][] fieldNames = { null }; // From the first row metadata.
+
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                                                               ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, since);
+                return statement;
+            }, (ResultSet resultSet) -> {
+                if (fieldNames[0] == null)
+                    fieldNames[0] = toFieldNames(resultSet.getMetaData());
+                writeRow(generator, resultSet, fieldNames[0]);
+                count[0]++;
+            });
+
+            generator.flush();
+            return count[0];
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // The client is gone.
+        }
+    }
+
+    private static void writeRow(JsonGenerator generator, ResultSet resultSet, String[] fieldNames) throws SQLException {
+        try {
+            generator.writeStartObject();
+            for (int column = 1; column <= fieldNames.length; column++) {
+                generator.writeFieldName(fieldNames[column - 1]);
+                Object value = resultSet.getObject(column);
+                if (value == null)
+                    generator.writeNull();
+                else if (value instanceof BigDecimal decimal)
+                    generator.writeNumber(decimal);
+                else if (value instanceof Number number)
+                    generator.writeNumber(number.longValue());
+                else
+                    generator.writeString(value.toString());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String[] toFieldNames(ResultSetMetaData metaData) throws SQLException {
+        String[] fieldNames = new String[metaData.getColumnCount()];
+        for (int column = 1; column <= fieldNames.length; column++)
+            fieldNames[column - 1] = toFieldName(metaData.getColumnLabel(column));
+        return fieldNames;
+    }
+
+    // PRODUCT_ID -> productId.
+    private static String toFieldName(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean bUpper = false;
+        for (char c : column.toLowerCase().toCharArray()) {
+            if (c == '_')
+                bUpper = true;
+            else {
+                name.append(bUpper ? Character.toUpperCase(c) : c);
+                bUpper = false;
+            }
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.rd.fullstack.springbootnuxt.dto.ImportProgress;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache;
+import org.rd.fullstack.springbootnuxt.util.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/*
+ * Streaming bulk import (POST /api/import/{entity}), CSV (with header) or NDJSON.
+ * - The rows are read one at a time (Jackson streaming parser): constant memory.
+ * - Upsert by JDBC batches (MERGE): PRODUCT on CODE, INVENTORY on PRODUCT_ID. Idempotent:
+ *   the same file can be imported again, after a failure for example.
+ * - One transaction per batch. The progress is reported after each batch.
+ * - Inventories: one InventoryChange by upserted row (after the commit of its batch), as the
+ *   entity writes. The rows are locked before the MERGE: the previous quantities are exact.
+ *   A quantity below the reserved one (INVENTORY_HELD_CK) fails its batch.
+ */
+@Service
+@Workload(Workload.Type.REPORTING)
+public class ImportSrv {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(ImportSrv.class);
+
+    public static final String CST_PRODUCTS    = "products";
+    public static final String CST_INVENTORIES = "inventories";
+
+    public static final MediaType CST_TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType CST_NDJSON   = MediaType.APPLICATION_NDJSON;
+
+    private static final String CST_MERGE_PRODUCT = """
+           MERGE INTO PRODUCT prd
+           USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(128)), CAST(? AS DECIMAL(10, 2))))
+              AS src (CODE, DESCRIPTION, PRICE)
+              ON prd.CODE = src.CODE
+            WHEN MATCHED THEN UPDATE SET prd.DESCRIPTION = src.DESCRIPTION, prd.PRICE = src.PRICE
+            WHEN NOT MATCHED THEN INSERT (CODE, DESCRIPTION, PRICE) VALUES (src.CODE, src.DESCRIPTION, src.PRICE)
+            """;
+
+    private static final String CST_MERGE_INVENTORY = """
+           MERGE INTO INVENTORY inv
+           USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER)))
+              AS src (PRODUCT_ID, QTY)
+              ON inv.PRODUCT_ID = src.PRODUCT_ID
+            WHEN MATCHED THEN UPDATE SET inv.QTY = src.QTY
+            WHEN NOT MATCHED THEN INSERT (PRODUCT_ID, QTY) VALUES (src.PRODUCT_ID, src.QTY)
+            """;
+
+    @Value("${org.rd.fullstack.springbootnuxt.import.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GraphQLResponseCache responseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+
+    public ImportSrv() {
+        super();
+        jsonReader = new ObjectMapper().readerFor(Map.class);
+        csvReader  = new CsvMapper().readerFor(Map.class).with(CsvSchema.emptySchema().withHeader());
+    }
+
+    public static boolean isSupported(String entity) {
+        return CST_PRODUCTS.equals(entity) || CST_INVENTORIES.equals(entity);
+    }
+
+    public void importRows(String entity, MediaType contentType, InputStream input,
+                           Consumer<ImportProgress> progress) throws IOException {
+        if (! isSupported(entity))
+            throw new IllegalArgumentException("Unsupported entity: " + entity + ".");
+
+        String sql = CST_PRODUCTS.equals(entity) ? CST_MERGE_PRODUCT : CST_MERGE_INVENTORY;
+        ObjectReader reader = CST_TEXT_CSV.isCompatibleWith(contentType) ? csvReader : jsonReader;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long start = System.currentTimeMillis();
+        long total = 0L;
+        long line  = 0L;
+        int  batch = 0;
+        List<Object[]> rows = new ArrayList<>(batchSize);
+
+        try (MappingIterator<Map<String, Object>> iterator = reader.readValues(input)) {
+            while (iterator.hasNextValue()) {
+                line++;
+                rows.add(toRow(entity, iterator.nextValue()));
+
+                if (rows.size() >= batchSize) {
+                    total += flush(transaction, entity, sql, rows);
+                    progress.accept(new ImportProgress(entity, ++batch, batchSize, total,
+                                                       System.currentTimeMillis() - start, false, null));
+                }
+            }
+
+            if (! rows.isEmpty()) {
+                int size = rows.size();
+                total += flush(transaction, entity, sql, rows);
+                progress.accept(new ImportProgress(entity, ++batch, size, total,
+                                                   System.currentTimeMillis() - start, false, null));
+            }
+            progress.accept(new ImportProgress(entity, batch, 0, total, System.currentTimeMillis() - start, true, null));
+
+        } catch (RuntimeException | IOException ex) {
+            // The previous batches are committed (idempotent: the file can be imported again).
+            logger.error("Import exception ({}, row {}): {}.", entity, line, ex.getMessage());
+            progress.accept(new ImportProgress(entity, batch + 1, 0, total, System.currentTimeMillis() - start, true,
+                                               "Row " + line + ": " + ex.getMessage()));
+        } finally {
+            if (total > 0)
+                responseCache.invalidate(); // JDBC writes: no entity listener.
+        }
+    }
+
+    private int flush(TransactionTemplate transaction, String entity, String sql, List<Object[]> rows) {
+        transaction.executeWithoutResult(status -> {
+            if (CST_INVENTORIES.equals(entity))
+                upsertInventories(sql, rows);
+            else
+                jdbcTemplate.batchUpdate(sql, rows);
+        });
+        int size = rows.size();
+        rows.clear();
+        return size;
+    }
+
+    // In the batch transaction: the events are delivered after its commit, dropped on rollback.
+    private void upsertInventories(String sql, List<Object[]> rows) {
+        Map<Long, Long> quantities = new LinkedHashMap<>(); // By product id: the last row wins.
+        for (Object[] row : rows)
+            quantities.put((Long) row[0], (Long) row[1]);
+
+        String in = "(" + String.join(", ", Collections.nCopies(quantities.size(), "?")) + ")";
+        Object[] productIds = quantities.keySet().toArray();
+
+        // No-op update: the existing rows are locked until the commit, their quantities are exact.
+        jdbcTemplate.update("UPDATE INVENTORY SET QTY = QTY WHERE PRODUCT_ID IN " + in, productIds);
+        Map<Long, Long> previous = new HashMap<>();
+        jdbcTemplate.query("SELECT PRODUCT_ID, QTY FROM INVENTORY WHERE PRODUCT_ID IN " + in,
+                           rs -> { previous.put(rs.getLong(1), rs.getLong(2)); }, productIds);
+
+        jdbcTemplate.batchUpdate(sql, rows);
+
+        jdbcTemplate.query("SELECT INVENTORY_ID, PRODUCT_ID FROM INVENTORY WHERE PRODUCT_ID IN " + in, rs -> {
+            long productId = rs.getLong(2);
+            Long previousQty = previous.get(productId);
+            eventPublisher.publishEvent(new InventoryChange(rs.getLong(1), productId, quantities.get(productId), previousQty,
+                                                            (previousQty == null) ? InventoryChange.Type.CREATED
+                                                                                  : InventoryChange.Type.UPDATED));
+        }, productIds);
+    }
+
+    private static Object[] toRow(String entity, Map<String, Object> values) {
+        if (CST_PRODUCTS.equals(entity))
+            return new Object[] { required(values, "code"),
+                                  required(values, "description"),
+                                  new BigDecimal(required(values, "price")) };
+
+        return new Object[] { Long.valueOf(required(values, "productId")),
+                              Long.valueOf(required(values, "qty")) };
+    }
+
+    private static String required(Map<String, Object> values, String name) {
+        Object value = values.get(name);
+        if ((value == null) || value.toString().isBlank())
+            throw new IllegalArgumentException("Missing value: " + name + ".");
+        return value.toString().trim();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/*
+ * Single in-process publisher of the committed inventory changes (GraphQL subscriptions).
+ * - One multicast sink: a change is read once (from the transaction-synchronized event),
+ *   then dispatched to all the subscribers. No subscriber polls the database.
+ * - The filters (productId, threshold) run in memory, per subscriber.
+ * - Each subscriber has a bounded buffer: a slow subscriber loses its oldest changes,
+ *   it never slows down the others.
+ */
+@Service
+public class InventoryEventsSrv {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(InventoryEventsSrv.class);
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.buffer-size:256}")
+    private int bufferSize;
+
+    private final ReentrantLock lock; // The sink emissions must be serialized.
+    private final Sinks.Many<InventoryChange> sink;
+
+    public InventoryEventsSrv() {
+        super();
+        lock = new ReentrantLock();
+        sink = Sinks.many().multicast().directBestEffort();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChange change) {
+        lock.lock();
+        try {
+            Sinks.EmitResult result = sink.tryEmitNext(change);
+            if (result.isFailure() && (result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER))
+                logger.warn("Inventory change not published: {}.", result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Flux<InventoryChange> changes(Predicate<InventoryChange> filter) {
+        return sink.asFlux()
+                   .filter(filter)
+                   .onBackpressureBuffer(bufferSize,
+                                         dropped -> logger.debug("Slow subscriber, change dropped: {}.", dropped),
+                                         BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    public int subscribers() {
+        return sink.currentSubscriberCount();
+    }
+
+    // The quantity of the product goes down to the threshold (or below). Once per crossing.
+    public static Predicate<InventoryChange> lowStock(long threshold) {
+        return change -> (change.type() != InventoryChange.Type.DELETED) &&
+                         (change.qty() != null) && (change.qty() <= threshold) &&
+                         ((change.previousQty() == null) || (change.previousQty() > threshold));
+    }
+
+    public static Predicate<InventoryChange> product(Long productId) {
+        return change -> (productId == null) || productId.equals(change.productId());
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.Reservation;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
+import org.rd.fullstack.springbootnuxt.dto.TransferLeg;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache;
+import org.rd.fullstack.springbootnuxt.util.TransactionRetry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+
+/*
+ * Inventory quantity updates (debit: qty + n, credit: qty - n, see InventoryRepository).
+ * - One UPDATE "SET QTY = QTY +/- n": no read-modify-write, no lost update.
+ * - Retried on a serialization failure (see TransactionRetry): a hot row under MVCC.
+ * - Withdrawal (checkout): "SET QTY = QTY - n WHERE QTY - HELD >= n", the resulting quantity comes back
+ *   with the update (JDBC generated keys: HSQLDB returns the requested columns of the updated row).
+ *   One statement per line item, never negative. No row: insufficient stock (or unknown inventory).
+ * - Transfer: the legs are reduced to a net quantity by inventory, applied in one transaction by
+ *   one JDBC batch of guarded updates, in the inventory id order. The row locks are always taken in
+ *   that canonical order: two transfers cannot deadlock (a conflict left is retried). One leg
+ *   refused: all the legs are rolled back.
+ * - Held quantities (INVENTORY.HELD, see ReservationSrv): the withdrawals and the transfer debits
+ *   keep them, "QTY - HELD >= n". A hold is "SET HELD = HELD + n WHERE QTY - HELD >= n" and its
+ *   RESERVATION row, in one transaction. Pure SQL on the inventory row: enforced for every instance,
+ *   without lock in the JVM. The other writes (update, import, credit) are refused by the
+ *   INVENTORY_HELD_CK check constraint (QTY >= HELD).
+ * - Bulk updates: no entity listener. The InventoryChange event (after the commit)
+ *   and the GraphQL response cache invalidation are done here.
+ */
+@Service
+public class InventoryQtySrv {
+
+    private static final String CST_WITHDRAW = """
+            UPDATE INVENTORY
+               SET QTY = QTY - ?
+             WHERE INVENTORY_ID = ?
+               AND QTY - HELD >= ?
+            """;
+
+    private static final String[] CST_WITHDRAW_COLUMNS = { "PRODUCT_ID", "QTY" };
+
+    private static final String CST_TRANSFER = """
+            UPDATE INVENTORY
+               SET QTY = QTY + ?
+             WHERE INVENTORY_ID = ?
+               AND (QTY + ? >= HELD OR ? > 0)
+            """;
+
+    private static final String CST_HOLD = """
+            UPDATE INVENTORY
+               SET HELD = HELD + ?
+             WHERE INVENTORY_ID = ?
+               AND QTY - HELD >= ?
+            """;
+
+    // The held quantity is part of QTY: withdrawn together.
+    private static final String CST_WITHDRAW_HELD = """
+            UPDATE INVENTORY
+               SET QTY = QTY - ?, HELD = HELD - ?
+             WHERE INVENTORY_ID = ?
+               AND QTY >= ?
+            """;
+
+    @Value("${org.rd.fullstack.springbootnuxt.transfer.max-legs:1000}")
+    private int maxLegs;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRetry transactionRetry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GraphQLResponseCache responseCache;
+
+    public InventoryQtySrv() {
+        super();
+    }
+
+    public Optional<InventoryChange> debitQTY(long inventoryId, long qty) {
+        return update(inventoryId, qty);
+    }
+
+    public Optional<InventoryChange> creditQTY(long inventoryId, long qty) {
+        return update(inventoryId, -qty);
+    }
+
+    // Empty: insufficient available quantity (QTY - HELD) or unknown inventory.
+    public Optional<StockAdjustment> withdrawQTY(long inventoryId, long qty) {
+        if (qty <= 0)
+            throw new IllegalArgumentException("Invalid quantity: " + qty + ".");
+
+        StockAdjustment adjustment = transactionRetry.execute(status -> withdraw(inventoryId, qty, false));
+
+        if (adjustment != null)
+            responseCache.invalidate();
+        return Optional.ofNullable(adjustment);
+    }
+
+    // False: insufficient available quantity (QTY - HELD) or unknown inventory, nothing held.
+    public boolean hold(Reservation reservation) {
+        return transactionRetry.execute(status -> {
+            if (jdbcTemplate.update(CST_HOLD, reservation.qty(), reservation.inventoryId(), reservation.qty()) == 0)
+                return false;
+            jdbcTemplate.update("INSERT INTO RESERVATION (RESERVATION_ID, INVENTORY_ID, QTY, EXPIRES_AT) VALUES (?, ?, ?, ?)",
+                                reservation.reservationId(), reservation.inventoryId(), reservation.qty(), reservation.expiresAt());
+            return true;
+        });
+    }
+
+    // Null: unknown or already released (the first one wins: the RESERVATION row delete).
+    public Reservation release(String reservationId) {
+        return transactionRetry.execute(status -> {
+            Reservation reservation = take(reservationId, Long.MIN_VALUE);
+            if (reservation != null)
+                jdbcTemplate.update("UPDATE INVENTORY SET HELD = HELD - ? WHERE INVENTORY_ID = ?",
+                                    reservation.qty(), reservation.inventoryId());
+            return reservation;
+        });
+    }
+
+    // The hold becomes a withdrawal, in one transaction. Empty: QTY below the hold (a store
+    // without the check constraint), the hold is released anyway.
+    public Optional<StockAdjustment> withdrawHeld(String reservationId, long now) {
+        StockAdjustment adjustment = transactionRetry.execute(status -> {
+            Reservation reservation = take(reservationId, now);
+            if (reservation == null)
+                throw new IllegalStateException("Unknown or expired reservation: " + reservationId + ".");
+
+            StockAdjustment withdrawn = withdraw(reservation.inventoryId(), reservation.qty(), true);
+            if (withdrawn == null)
+                jdbcTemplate.update("UPDATE INVENTORY SET HELD = HELD - ? WHERE INVENTORY_ID = ?",
+                                    reservation.qty(), reservation.inventoryId());
+            return withdrawn;
+        });
+
+        if (adjustment != null)
+            responseCache.invalidate();
+        return Optional.ofNullable(adjustment);
+    }
+
+    // The holds expired at "now", whatever the instance that took them (stopped or crashed).
+    public int releaseExpired(long now) {
+        int released = 0;
+        for (String reservationId : jdbcTemplate.queryForList("SELECT RESERVATION_ID FROM RESERVATION WHERE EXPIRES_AT <= ?",
+                                                               String.class, now)) {
+            if (release(reservationId) != null)
+                released++;
+        }
+        return released;
+    }
+
+    // Deleted in the current transaction. Null: unknown, taken by another one, or expired at "now".
+    private Reservation take(String reservationId, long now) {
+        List<Reservation> reservations = jdbcTemplate.query(
+            "SELECT INVENTORY_ID, QTY, EXPIRES_AT FROM RESERVATION WHERE RESERVATION_ID = ?",
+            (rs, rowNum) -> new Reservation(reservationId, rs.getLong(1), rs.getLong(2), rs.getLong(3)), reservationId);
+        if (reservations.isEmpty() || (reservations.get(0).expiresAt() <= now))
+            return null;
+        if (jdbcTemplate.update("DELETE FROM RESERVATION WHERE RESERVATION_ID = ?", reservationId) == 0)
+            return null;
+        return reservations.get(0);
+    }
+
+    // In the current transaction. Null: the guard refused it.
+    private StockAdjustment withdraw(long inventoryId, long qty, boolean bHeld) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        int count = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(bHeld ? CST_WITHDRAW_HELD : CST_WITHDRAW,
+                                                                      CST_WITHDRAW_COLUMNS);
+            int index = 1;
+            statement.setLong(index++, qty);
+            if (bHeld)
+                statement.setLong(index++, qty);
+            statement.setLong(index++, inventoryId);
+            statement.setLong(index, qty);
+            return statement;
+        }, keyHolder);
+        if (count == 0)
+            return null;
+
+        Map<String, Object> row = keyHolder.getKeys();
+        StockAdjustment withdrawn = new StockAdjustment(inventoryId, ((Number) row.get("PRODUCT_ID")).longValue(),
+                                                        qty, ((Number) row.get("QTY")).longValue());
+        eventPublisher.publishEvent(new InventoryChange(inventoryId, withdrawn.productId(), withdrawn.qty(),
+                                                        withdrawn.qty() + qty, InventoryChange.Type.UPDATED));
+        return withdrawn;
+    }
+
+    // Empty: insufficient stock or unknown inventory, nothing applied.
+    public Optional<List<InventoryChange>> transfer(List<TransferLeg> legs) {
+        if ((legs == null) || legs.isEmpty())
+            throw new IllegalArgumentException("No transfer legs.");
+        if (legs.size() > maxLegs)
+            throw new IllegalArgumentException("Too many transfer legs: " + legs.size() + " (max: " + maxLegs + ").");
+
+        TreeMap<Long, Long> deltas = new TreeMap<>(); // By inventory id: the canonical order.
+        for (TransferLeg leg : legs) {
+            if ((leg == null) || (leg.fromInventoryId() == null) || (leg.toInventoryId() == null) ||
+                (leg.qty() == null) || (leg.qty() <= 0) || leg.fromInventoryId().equals(leg.toInventoryId()))
+                throw new IllegalArgumentException("Invalid transfer leg: " + leg + ".");
+            deltas.merge(leg.fromInventoryId(), -leg.qty(), Long::sum);
+            deltas.merge(leg.toInventoryId(), leg.qty(), Long::sum);
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> rows.add(new Object[] { delta, id, delta, delta })); // A credit: never refused.
+        String select = "SELECT INVENTORY_ID, PRODUCT_ID, QTY FROM INVENTORY WHERE INVENTORY_ID IN (" +
+                        String.join(", ", Collections.nCopies(deltas.size(), "?")) + ") ORDER BY INVENTORY_ID";
+
+        List<InventoryChange> changes = transactionRetry.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(CST_TRANSFER, rows);
+            if (Arrays.stream(counts).anyMatch(count -> count == 0)) {
+                status.setRollbackOnly();
+                return null;
+            }
+
+            // Locked by the updates: the quantities are exact.
+            List<InventoryChange> updated = new ArrayList<>(deltas.size());
+            jdbcTemplate.query(select, rs -> {
+                long id  = rs.getLong(1);
+                long qty = rs.getLong(3);
+                updated.add(new InventoryChange(id, rs.getLong(2), qty, qty - deltas.get(id), InventoryChange.Type.UPDATED));
+            }, deltas.keySet().toArray());
+            for (InventoryChange change : updated)
+                eventPublisher.publishEvent(change);
+            return updated;
+        });
+
+        if (changes != null)
+            responseCache.invalidate();
+        return Optional.ofNullable(changes);
+    }
+
+    private Optional<InventoryChange> update(long inventoryId, long delta) {
+        InventoryChange change = transactionRetry.execute(status -> {
+            int count = (delta >= 0) ? inventoryRepository.debitQTY(delta, inventoryId)
+                                     : inventoryRepository.creditQTY(-delta, inventoryId);
+            if (count == 0)
+                return null;
+
+            // Read in the same transaction: the row is locked by the update, the quantity is exact.
+            Inventory inventory = inventoryRepository.findById(inventoryId).orElseThrow();
+            InventoryChange updated = new InventoryChange(inventoryId, inventory.getProductId(), inventory.getQty(),
+                                                          inventory.getQty() - delta, InventoryChange.Type.UPDATED);
+            eventPublisher.publishEvent(updated);
+            return updated;
+        });
+
+        if (change != null)
+            responseCache.invalidate();
+        return Optional.ofNullable(change);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/*
+ * Server-Sent Events stream of the committed inventory changes (GET /api/inventories/stream).
+ * - The changes come from the transaction-synchronized InventoryChange events (after commit).
+ * - Each event gets a sequence number: the SSE "id".
+ * - Each subscriber has a bounded buffer, coalesced by inventory id (only the last change of
+ *   an inventory is sent). A slow subscriber that overflows gets a "reset" event: reload the view.
+ * - The last events are kept (resume window): a client reconnecting with "Last-Event-ID"
+ *   receives the missed changes, or a "reset" event if they are out of the window.
+ * - One scheduler thread flushes the buffers and sends the heartbeats (SSE comments).
+ */
+@Service
+public class InventoryStreamSrv implements SmartLifecycle {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(InventoryStreamSrv.class);
+
+    public static final String CST_EVENT_CHANGE = "inventory";
+    public static final String CST_EVENT_RESET  = "reset";
+
+    public record Event(long id, InventoryChange change) {}
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.resume-window:1024}")
+    private int resumeWindow;
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.flush-interval:250}")
+    private long flushInterval;
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.heartbeat:15000}")
+    private long heartbeat;
+
+    @Value("${org.rd.fullstack.springbootnuxt.stream.timeout:1800000}")
+    private long timeout;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final AtomicLong sequence;
+    private final AtomicBoolean running;
+    private final ReentrantLock lock;          // The history and the subscriptions.
+    private final ArrayDeque<Event> history;   // Resume window.
+    private final List<Subscriber> subscribers;
+
+    private ScheduledExecutorService scheduler;
+
+    public InventoryStreamSrv() {
+        super();
+        sequence    = new AtomicLong(0L);
+        running     = new AtomicBoolean(false);
+        lock        = new ReentrantLock();
+        history     = new ArrayDeque<>();
+        subscribers = new CopyOnWriteArrayList<>();
+    }
+
+    // After the commit. Without transaction: at once (fallbackExecution).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChange change) {
+        lock.lock();
+        try {
+            Event event = new Event(sequence.incrementAndGet(), change);
+            history.addLast(event);
+            while (history.size() > resumeWindow)
+                history.removeFirst();
+
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+
+        lock.lock();
+        try {
+            if (lastEventId != null)
+                resume(subscriber, lastEventId);
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public long lastEventId() {
+        return sequence.get();
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    // Under the lock: no event between the replay and the subscription.
+    private void resume(Subscriber subscriber, String lastEventId) {
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException ex) {
+            last = -1L;
+        }
+
+        long current = sequence.get();
+        long oldest  = history.isEmpty() ? current + 1 : history.peekFirst().id();
+        if ((last < oldest - 1) || (last > current)) {
+            subscriber.reset(current); // Out of the window (or another server run).
+            return;
+        }
+
+        for (Event event : history) {
+            if (event.id() > last)
+                subscriber.offer(event);
+        }
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.flush(now, heartbeat);
+            } catch (Exception ex) {
+                logger.debug("SSE subscriber removed: {}.", ex.getMessage());
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (! running.compareAndSet(false, true)) 
+            return;
+
+        logger.info("Starting InventoryStreamSrv.");
+        scheduler = Executors.newSingleThreadScheduledExecutor(virtualThreads
+            ? Thread.ofVirtual().name("inventory-stream").factory()
+            : Thread.ofPlatform().name("inventory-stream").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
+            return;
+
+        logger.info("Stopping InventoryStreamSrv.");
+        scheduler.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ReentrantLock lock;
+        private final LinkedHashMap<Long, Event> pending; // By inventory id, in event order.
+
+        private boolean bReset; // A "reset" event must be sent.
+        private long resetId;
+        private long lastSend;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter  = emitter;
+            this.capacity = capacity;
+            this.lock     = new ReentrantLock();
+            this.pending  = new LinkedHashMap<>();
+            this.bReset   = false;
+            this.resetId  = 0L;
+            this.lastSend = System.currentTimeMillis();
+        }
+
+        private void offer(Event event) {
+            lock.lock();
+            try {
+                // Coalescing: the previous change of the same inventory is replaced (and moved last).
+                pending.remove(event.change().inventoryId());
+                pending.put(event.change().inventoryId(), event);
+                if (pending.size() > capacity)
+                    reset(event.id());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void reset(long id) {
+            lock.lock();
+            try {
+                pending.clear();
+                bReset  = true;
+                resetId = id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // The sends are done outside of the lock: the publisher never waits for a client.
+        private void flush(long now, long heartbeat) throws IOException {
+            boolean bSendReset;
+            long reset;
+            List<Event> events;
+            lock.lock();
+            try {
+                bSendReset = bReset;
+                reset      = resetId;
+                events     = new ArrayList<>(pending.values());
+                bReset     = false;
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            if (bSendReset)
+                emitter.send(SseEmitter.event().id(String.valueOf(reset)).name(CST_EVENT_RESET).data(CST_EVENT_RESET));
+            for (Event event : events)
+                emitter.send(SseEmitter.event()
+                                       .id(String.valueOf(event.id()))
+                                       .name(CST_EVENT_CHANGE)
+                                       .data(event.change(), MediaType.APPLICATION_JSON));
+
+            if (bSendReset || ! events.isEmpty())
+                lastSend = now;
+            else if (now - lastSend >= heartbeat) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                lastSend = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.JournalReplay;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache;
+import org.rd.fullstack.springbootnuxt.util.StockJournal;
+import org.rd.fullstack.springbootnuxt.util.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+ * Stock movements journal (see StockJournal): every committed InventoryChange is appended.
+ * - Baseline: an empty journal starts with a snapshot of the INVENTORY table.
+ * - Replay: the quantities rebuilt from the journal, compared with the table (audit) or
+ *   written back to it (rebuild). A mismatch can also be a write outside the journal (SQL,
+ *   another application): the rebuild never reverts it silently, it writes only the inventory
+ *   ids confirmed by the caller (from an audit), and only if they still mismatch.
+ * - Scheduler: the GROUP sync (sync-interval) and the snapshot + compaction (snapshot-interval).
+ * The imports publish one InventoryChange by row: journaled. The rebuild publishes none.
+ * The rebuild reloads the low stock index (see LowStockSrv).
+ */
+@Service
+@Workload(Workload.Type.REPORTING)
+public class JournalSrv implements SmartLifecycle {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(JournalSrv.class);
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.directory:./data/journal}")
+    private String directory;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.segment-size:67108864}")
+    private long segmentSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.sync:GROUP}")
+    private StockJournal.Sync sync;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.group-size:256}")
+    private int groupSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.sync-interval:10}")
+    private long syncInterval;
+
+    @Value("${org.rd.fullstack.springbootnuxt.journal.snapshot-interval:600000}")
+    private long snapshotInterval;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GraphQLResponseCache responseCache;
+
+    @Autowired
+    private LowStockSrv lowStockSrv;
+
+    private final AtomicBoolean running;
+
+    private volatile StockJournal journal;
+    private ScheduledExecutorService scheduler;
+
+    public JournalSrv() {
+        super();
+        running = new AtomicBoolean(false);
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    // After the commit. Without transaction: at once (fallbackExecution).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChange change) {
+        StockJournal current = journal;
+        if (current == null)
+            return;
+
+        try {
+            long previous = (change.previousQty() == null) ? 0L : change.previousQty();
+            if (change.type() == InventoryChange.Type.DELETED)
+                current.append(change.inventoryId(), -previous, StockJournal.CST_DELETED);
+            else
+                current.append(change.inventoryId(), change.qty() - previous, change.qty());
+        } catch (Exception ex) {
+            logger.error("Journal append exception: {}.", ex.getMessage(), ex);
+        }
+    }
+
+    public JournalReplay audit() throws IOException {
+        return replay(Set.of());
+    }
+
+    public JournalReplay rebuild(Collection<Long> inventoryIds) throws IOException {
+        if ((inventoryIds == null) || inventoryIds.isEmpty())
+            throw new IllegalArgumentException("No inventory ids to rebuild (see the audit mismatches).");
+        return replay(new HashSet<>(inventoryIds));
+    }
+
+    public long snapshot() throws IOException {
+        StockJournal.State state = journal().replay();
+        journal().snapshot(state);
+        journal().compact(state.sequence());
+        return state.sequence();
+    }
+
+    // Empty "confirmed": audit only.
+    private JournalReplay replay(Set<Long> confirmed) throws IOException {
+        StockJournal.State state = journal().replay();
+        Map<Long, Long> table = quantities();
+
+        Set<Long> ids = new HashSet<>(table.keySet());
+        ids.addAll(state.quantities().keySet());
+        List<Long> mismatches = new ArrayList<>();
+        for (Long id : ids) {
+            if (! Objects.equals(table.get(id), state.quantities().get(id)))
+                mismatches.add(id);
+        }
+        mismatches.sort(null);
+
+        int applied = 0;
+        if (! confirmed.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>();
+            mismatches.stream()
+                      .filter(id -> confirmed.contains(id) && table.containsKey(id) && state.quantities().containsKey(id))
+                      .forEach(id -> rows.add(new Object[] { state.quantities().get(id), id }));
+            for (int count : jdbcTemplate.batchUpdate("UPDATE INVENTORY SET QTY = ? WHERE INVENTORY_ID = ?", rows))
+                applied += count;
+            responseCache.invalidate(); // JDBC writes: no entity listener.
+            lowStockSrv.reload();
+            logger.info("Journal rebuild: {} quantities written (sequence {}).", applied, state.sequence());
+        }
+        return new JournalReplay(state.sequence(), state.quantities().size(), mismatches, applied);
+    }
+
+    private Map<Long, Long> quantities() {
+        Map<Long, Long> quantities = new HashMap<>();
+        jdbcTemplate.query("SELECT INVENTORY_ID, QTY FROM INVENTORY",
+                           rs -> { quantities.put(rs.getLong(1), rs.getLong(2)); });
+        return quantities;
+    }
+
+    private StockJournal journal() {
+        StockJournal current = journal;
+        if (current == null)
+            throw new IllegalStateException("The stock journal is disabled.");
+        return current;
+    }
+
+    private void scheduled(String task, IORunnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception ex) {
+            logger.error("Journal {} exception: {}.", task, ex.getMessage(), ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    @Override
+    public void start() {
+        if (! enabled || ! running.compareAndSet(false, true)) 
+            return;
+
+        logger.info("Starting JournalSrv.");
+        try {
+            StockJournal opened = new StockJournal(Path.of(directory), segmentSize, sync, groupSize);
+            if (opened.isEmpty())
+                opened.snapshot(new StockJournal.State(0L, quantities()));
+            journal = opened;
+        } catch (IOException ex) {
+            running.set(false);
+            throw new IllegalStateException("Unable to open the stock journal: " + ex.getMessage(), ex);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("stock-journal").daemon(true).factory());
+        if ((sync == StockJournal.Sync.GROUP) && (syncInterval > 0))
+            scheduler.scheduleWithFixedDelay(() -> scheduled("sync", journal::sync), syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        if (snapshotInterval > 0)
+            scheduler.scheduleWithFixedDelay(() -> scheduled("snapshot", this::snapshot), snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
+            return;
+
+        logger.info("Stopping JournalSrv.");
+        scheduler.shutdownNow();
+        StockJournal current = journal;
+        journal = null;
+        scheduled("close", current::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.rd.fullstack.springbootnuxt.dto.LookupResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+ * Multi-get (GET /api/{entity}?ids=... and POST /api/{entity}/lookup).
+ * - One "WHERE id IN (...)" query per chunk (chunk-size ids): one round trip for the client,
+ *   bounded statements for the database.
+ * - The duplicates are removed, the requested order is kept.
+ * - The unknown ids are reported (missing), not an error.
+ */
+@Service
+public class LookupSrv {
+
+    @Value("${org.rd.fullstack.springbootnuxt.lookup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${org.rd.fullstack.springbootnuxt.lookup.max-ids:1000}")
+    private int maxIds;
+
+    public LookupSrv() {
+        super();
+    }
+
+    @Transactional(readOnly = true)
+    public <T> LookupResult<T> lookup(List<Long> ids, JpaRepository<T, Long> repository, Function<T, Long> idFn) {
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(ids.stream().filter(Objects::nonNull).toList()));
+        if (requested.isEmpty())
+            throw new IllegalArgumentException("No ids.");
+        if (requested.size() > maxIds)
+            throw new IllegalArgumentException("Too many ids: " + requested.size() + " (max: " + maxIds + ").");
+
+        Map<Long, T> found = new HashMap<>(requested.size() * 2);
+        for (int from = 0; from < requested.size(); from += chunkSize) {
+            List<Long> chunk = requested.subList(from, Math.min(from + chunkSize, requested.size()));
+            repository.findAllById(chunk).forEach(entity -> found.put(idFn.apply(entity), entity));
+        }
+
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            T entity = found.get(id);
+            if (entity == null)
+                missing.add(id);
+            else
+                items.add(entity);
+        }
+        return new LookupResult<>(items, missing);
+    }
+}
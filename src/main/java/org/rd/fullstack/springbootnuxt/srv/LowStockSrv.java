@@ -0,0 +1,273 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.LowStock;
+import org.rd.fullstack.springbootnuxt.dto.LowStockEvent;
+import org.rd.fullstack.springbootnuxt.util.SortedLongIndex;
+import org.rd.fullstack.springbootnuxt.util.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+ * Low stock alerts: the quantities are evaluated on each committed InventoryChange, never scanned.
+ * - Threshold by product (LOW_STOCK_THRESHOLD table), "default-threshold" otherwise.
+ *   Low: QTY <= threshold (as InventoryEventsSrv.lowStock).
+ * - Sorted index of (qty, inventoryId), packed in one long (see SortedLongIndex): the low stock
+ *   list is a range read from the lowest quantity, up to the threshold.
+ * - Crossing (LOW or RESTOCKED): published as a LowStockEvent, after the commit of the change,
+ *   outside the lock. The listeners are plain @EventListener.
+ * - The journal rebuild (bulk JDBC writes) publishes no change: reload() after it.
+ * Two commits on the same inventory can be notified out of order: the next change (or reload) fixes it.
+ */
+@Service
+public class LowStockSrv implements SmartLifecycle {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(LowStockSrv.class);
+
+    private static final String CST_MERGE_THRESHOLD = """
+           MERGE INTO LOW_STOCK_THRESHOLD lst
+           USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER)))
+              AS src (PRODUCT_ID, THRESHOLD)
+              ON lst.PRODUCT_ID = src.PRODUCT_ID
+            WHEN MATCHED THEN UPDATE SET lst.THRESHOLD = src.THRESHOLD
+            WHEN NOT MATCHED THEN INSERT (PRODUCT_ID, THRESHOLD) VALUES (src.PRODUCT_ID, src.THRESHOLD)
+            """;
+
+    private static final long CST_ID_MASK = 0xFFFFFFFFL;
+
+    @Value("${org.rd.fullstack.springbootnuxt.low-stock.default-threshold:10}")
+    private long defaultThreshold;
+
+    @Value("${org.rd.fullstack.springbootnuxt.low-stock.max-results:1000}")
+    private int maxResults;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private final AtomicBoolean running;
+    private final ReentrantLock lock; // Guards the index, the stocks and the thresholds.
+    private final SortedLongIndex index;
+    private final Map<Long, Stock> stocks;      // By inventory id.
+    private final Map<Long, Long> inventories;  // Inventory id by product id.
+    private final Map<Long, Long> thresholds;   // By product id.
+    private long maxThreshold;
+
+    private record Stock(long productId, long qty) {}
+
+    public LowStockSrv() {
+        super();
+        running     = new AtomicBoolean(false);
+        lock        = new ReentrantLock();
+        index       = new SortedLongIndex();
+        stocks      = new HashMap<>();
+        inventories = new HashMap<>();
+        thresholds  = new HashMap<>();
+    }
+
+    // After the commit. Without transaction: at once (fallbackExecution).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChange change) {
+        if ((change.inventoryId() == null) || (change.productId() == null))
+            return;
+
+        LowStockEvent event;
+        lock.lock();
+        try {
+            long inventoryId = change.inventoryId();
+            Stock previous = stocks.remove(inventoryId);
+            if (previous != null) {
+                index.remove(key(previous.qty(), inventoryId));
+                inventories.remove(previous.productId(), inventoryId);
+            }
+            if ((change.type() == InventoryChange.Type.DELETED) || (change.qty() == null))
+                return;
+
+            Stock stock = new Stock(change.productId(), change.qty());
+            stocks.put(inventoryId, stock);
+            inventories.put(stock.productId(), inventoryId);
+            index.add(key(stock.qty(), inventoryId));
+
+            boolean bWasLow = (previous != null) && (previous.qty() <= threshold(previous.productId()));
+            event = crossing(inventoryId, stock, bWasLow);
+        } finally {
+            lock.unlock();
+        }
+
+        if (event != null)
+            publisher.publishEvent(event);
+    }
+
+    // Lowest quantities first. No threshold: the threshold of each product.
+    public List<LowStock> lowStock(Long threshold, int limit) {
+        if ((limit <= 0) || (limit > maxResults))
+            throw new IllegalArgumentException("Invalid limit: " + limit + " (1 to " + maxResults + ").");
+
+        List<LowStock> result = new ArrayList<>();
+        lock.lock();
+        try {
+            long bound = (threshold != null) ? threshold : maxThreshold;
+            index.range(Long.MIN_VALUE, key -> {
+                long qty = key >> 32;
+                if (qty > bound)
+                    return false;
+
+                long inventoryId = key & CST_ID_MASK;
+                Stock stock = stocks.get(inventoryId);
+                long limitQty = (threshold != null) ? threshold : threshold(stock.productId());
+                if (qty <= limitQty)
+                    result.add(new LowStock(inventoryId, stock.productId(), qty, limitQty));
+                return result.size() < limit;
+            });
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    public long getThreshold(long productId) {
+        lock.lock();
+        try {
+            return threshold(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // False: unknown product. The inventory of the product is evaluated with the new threshold.
+    public boolean setThreshold(long productId, long threshold) {
+        if ((threshold < 0) || (threshold > Integer.MAX_VALUE))
+            throw new IllegalArgumentException("Invalid threshold: " + threshold + ".");
+        if (! productRepository.existsById(productId))
+            return false;
+
+        jdbcTemplate.update(CST_MERGE_THRESHOLD, productId, threshold);
+
+        LowStockEvent event = null;
+        lock.lock();
+        try {
+            Long inventoryId = inventories.get(productId);
+            Stock stock = (inventoryId == null) ? null : stocks.get(inventoryId);
+            boolean bWasLow = (stock != null) && (stock.qty() <= threshold(productId));
+
+            thresholds.put(productId, threshold);
+            maxThreshold = Math.max(defaultThreshold,
+                                    thresholds.values().stream().mapToLong(Long::longValue).max().orElse(0L));
+            if (stock != null)
+                event = crossing(inventoryId, stock, bWasLow);
+        } finally {
+            lock.unlock();
+        }
+
+        if (event != null)
+            publisher.publishEvent(event);
+        return true;
+    }
+
+    // Full load of the quantities and the thresholds. No event: the crossings are not known.
+    @Workload(Workload.Type.REPORTING)
+    public int reload() {
+        Map<Long, Long> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT PRODUCT_ID, THRESHOLD FROM LOW_STOCK_THRESHOLD",
+                           rs -> { loaded.put(rs.getLong(1), rs.getLong(2)); });
+
+        lock.lock();
+        try {
+            index.clear();
+            stocks.clear();
+            inventories.clear();
+            thresholds.clear();
+            thresholds.putAll(loaded);
+            maxThreshold = Math.max(defaultThreshold,
+                                    thresholds.values().stream().mapToLong(Long::longValue).max().orElse(0L));
+
+            jdbcTemplate.query("SELECT INVENTORY_ID, PRODUCT_ID, QTY FROM INVENTORY", rs -> {
+                long inventoryId = rs.getLong(1);
+                Stock stock = new Stock(rs.getLong(2), rs.getLong(3));
+                stocks.put(inventoryId, stock);
+                inventories.put(stock.productId(), inventoryId);
+                index.add(key(stock.qty(), inventoryId));
+            });
+            logger.info("Low stock index loaded: {} inventories, {} thresholds.", stocks.size(), thresholds.size());
+            return stocks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LowStockEvent crossing(long inventoryId, Stock stock, boolean bWasLow) {
+        long threshold = threshold(stock.productId());
+        boolean bLow = stock.qty() <= threshold;
+        if (bLow == bWasLow)
+            return null;
+
+        LowStock lowStock = new LowStock(inventoryId, stock.productId(), stock.qty(), threshold);
+        return new LowStockEvent(lowStock, bLow ? LowStockEvent.Type.LOW : LowStockEvent.Type.RESTOCKED);
+    }
+
+    private long threshold(long productId) {
+        return thresholds.getOrDefault(productId, defaultThreshold);
+    }
+
+    // Quantity (signed) in the high bits, inventory id (INTEGER) in the low bits: sorted by qty, then id.
+    private static long key(long qty, long inventoryId) {
+        return (qty << 32) | (inventoryId & CST_ID_MASK);
+    }
+
+    @Override
+    public void start() {
+        if (! running.compareAndSet(false, true)) 
+            return;
+
+        logger.info("Starting LowStockSrv.");
+        reload();
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
+            return;
+
+        logger.info("Stopping LowStockSrv.");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.srv;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.rd.fullstack.springbootnuxt.dto.Reservation;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
+import org.rd.fullstack.springbootnuxt.util.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/*
+ * Stock reservations (checkout): the quantity is held for "ttl" ms, then confirmed, released or expired.
+ * - The holds are in the database: a RESERVATION row and INVENTORY.HELD (see InventoryQtySrv).
+ *   Available = QTY - HELD, enforced by the SQL guards for every instance and every write.
+ *   Only the confirmation writes QTY (one guarded update, with the hold).
+ * - Confirm, release and expiry delete the RESERVATION row: the first one wins.
+ * - Expiry: hashed timing wheel (see TimingWheel), advanced by one scheduler thread. O(1) per hold.
+ *   A hold is scheduled once committed. An expired hold is never confirmed (EXPIRES_AT).
+ * - Sweep (at start, then every "ttl"): the expired holds of any instance (restarted, crashed).
+ */
+@Service
+public class ReservationSrv implements SmartLifecycle {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(ReservationSrv.class);
+
+    @Value("${org.rd.fullstack.springbootnuxt.reservation.ttl:300000}")
+    private long ttl;
+
+    @Value("${org.rd.fullstack.springbootnuxt.reservation.tick:100}")
+    private long tick;
+
+    @Value("${org.rd.fullstack.springbootnuxt.reservation.wheel-size:4096}")
+    private int wheelSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryQtySrv inventoryQtySrv;
+
+    private final AtomicBoolean running;
+
+    private volatile TimingWheel<String> wheel;
+    private ScheduledExecutorService scheduler;
+
+    public ReservationSrv() {
+        super();
+        running = new AtomicBoolean(false);
+    }
+
+    // Empty: unknown inventory or insufficient available quantity.
+    public Optional<Reservation> reserve(long inventoryId, long qty) {
+        if (qty <= 0)
+            throw new IllegalArgumentException("Invalid quantity: " + qty + ".");
+        if (wheel == null)
+            throw new IllegalStateException("The reservations are not started.");
+
+        long expiresAt = System.currentTimeMillis() + ttl;
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), inventoryId, qty, expiresAt);
+        if (! inventoryQtySrv.hold(reservation))
+            return Optional.empty();
+
+        // Committed first: an early expiry finds the hold.
+        wheel.schedule(reservation.reservationId(), expiresAt);
+        return Optional.of(reservation);
+    }
+
+    public Optional<Reservation> find(String reservationId) {
+        List<Reservation> reservations = jdbcTemplate.query(
+            "SELECT INVENTORY_ID, QTY, EXPIRES_AT FROM RESERVATION WHERE RESERVATION_ID = ? AND EXPIRES_AT > ?",
+            (rs, rowNum) -> new Reservation(reservationId, rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+            reservationId, System.currentTimeMillis());
+        return reservations.stream().findFirst();
+    }
+
+    // The hold becomes a withdrawal. Empty: QTY below the hold (a store without the check constraint).
+    public Optional<StockAdjustment> confirm(String reservationId) {
+        return inventoryQtySrv.withdrawHeld(reservationId, System.currentTimeMillis());
+    }
+
+    public boolean release(String reservationId) {
+        return inventoryQtySrv.release(reservationId) != null;
+    }
+
+    public long available(long inventoryId) {
+        return jdbcTemplate.queryForList("SELECT QTY - HELD FROM INVENTORY WHERE INVENTORY_ID = ?", Long.class, inventoryId)
+                           .stream()
+                           .findFirst()
+                           .orElseThrow(() -> new IllegalArgumentException("Unknown inventory: " + inventoryId + "."));
+    }
+
+    public long held(long inventoryId) {
+        return jdbcTemplate.queryForList("SELECT HELD FROM INVENTORY WHERE INVENTORY_ID = ?", Long.class, inventoryId)
+                           .stream()
+                           .findFirst()
+                           .orElse(0L);
+    }
+
+    public long holds() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM RESERVATION", Long.class);
+    }
+
+    private void expire(String reservationId) {
+        if (inventoryQtySrv.release(reservationId) != null)
+            logger.debug("Reservation expired: {}.", reservationId);
+    }
+
+    private void advance() {
+        try {
+            wheel.advance(System.currentTimeMillis(), this::expire);
+        } catch (Exception ex) {
+            logger.error("Reservations expiry exception: {}.", ex.getMessage(), ex);
+        }
+    }
+
+    private void sweep() {
+        try {
+            int released = inventoryQtySrv.releaseExpired(System.currentTimeMillis());
+            if (released > 0)
+                logger.info("Reservations sweep: {} expired holds released.", released);
+        } catch (Exception ex) {
+            logger.error("Reservations sweep exception: {}.", ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (! running.compareAndSet(false, true)) 
+            return;
+
+        logger.info("Starting ReservationSrv.");
+        wheel = new TimingWheel<>(tick, wheelSize, System.currentTimeMillis());
+        scheduler = Executors.newSingleThreadScheduledExecutor(virtualThreads
+            ? Thread.ofVirtual().name("reservation-expiry").factory()
+            : Thread.ofPlatform().name("reservation-expiry").daemon(true).factory());
+        scheduler.execute(this::sweep);
+        scheduler.scheduleAtFixedRate(this::advance, tick, tick, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweep, ttl, ttl, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
+            return;
+
+        // The holds stay in the database: they expire, or are confirmed by another instance.
+        logger.info("Stopping ReservationSrv.");
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+}
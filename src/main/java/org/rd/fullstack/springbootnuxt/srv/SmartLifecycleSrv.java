@@ -34,22 +34,21 @@ public class SmartLifecycleSrv implements SmartLifecycle {
         running = new AtomicBoolean(false);
     }
 
+    // No synchronized (virtual threads: a blocked carrier). The compare-and-set is the guard.
     @Override
-    public synchronized void start() {
-        if (running.get()) 
+    public void start() {
+        if (! running.compareAndSet(false, true)) 
             return;
 
         logger.info("Starting SmartLifecycleService.");
-        running.set(true);
     }
 
     @Override
-    public synchronized void stop() {
-        if (!running.get()) 
+    public void stop() {
+        if (! running.compareAndSet(true, false)) 
             return;
 
         logger.info("Stopping SmartLifecycleService.");
-        running.set(false);
     }
 
     public boolean isRunning() {
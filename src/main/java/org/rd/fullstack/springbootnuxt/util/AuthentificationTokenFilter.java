@@ -28,12 +28,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
-import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -43,40 +40,24 @@ public class AuthentificationTokenFilter extends OncePerRequestFilter {
 
     private static final String  CST_AUTHORIZATION_HEADER = "Authorization";
     private static final Pattern CST_BEARER_PATTERN       = Pattern.compile("^Bearer (.+?)$"); // https://regex101.com/.
-    private static final String  CST_API_URL_PATH         = "/api/**";    // URL for API.
-    private static final String  CST_REPORT_URL_PATH      = "/report/**"; // URL for report.
-    private static final String  CST_GRAPHPQL_URL_PATH    = "/graphql**"; // URL for GrapQL query.
-    private static final String  CST_HEALTH_URL_PATH      = "/health/**"; // URL for health check.
+    private static final String  CST_API_URL_PATH         = "/api";     // URL for API.          -> /api/**
+    private static final String  CST_REPORT_URL_PATH      = "/report";  // URL for report.       -> /report/**
+    private static final String  CST_GRAPHPQL_URL_PATH    = "/graphql"; // URL for GrapQL query. -> /graphql**
+    private static final String  CST_HEALTH_URL_PATH      = "/health";  // URL for health check. -> /health/**
 
     private static final Logger logger = LoggerFactory.getLogger(AuthentificationTokenFilter.class);
 
     private JwtUtils jwtUtils;
     private UserDetailsService userDetailsService;
 
-    private final RequestMatcher uriApiMatcher;
-    private final RequestMatcher uriReportMatcher;
-    private final RequestMatcher uriGraphQLMatcher;
-    private final RequestMatcher uriHealthMatcher;
-
     public AuthentificationTokenFilter() {
         super();
-
-        uriApiMatcher     = PathPatternRequestMatcher.withDefaults().matcher(CST_API_URL_PATH);
-        uriReportMatcher  = PathPatternRequestMatcher.withDefaults().matcher(CST_REPORT_URL_PATH);
-        uriGraphQLMatcher = PathPatternRequestMatcher.withDefaults().matcher(CST_GRAPHPQL_URL_PATH);
-        uriHealthMatcher  = PathPatternRequestMatcher.withDefaults().matcher(CST_HEALTH_URL_PATH);
-
         this.jwtUtils = null;
         this.userDetailsService = null;
     }
 
     public AuthentificationTokenFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
         super();
-        uriApiMatcher     = PathPatternRequestMatcher.withDefaults().matcher(CST_API_URL_PATH);
-        uriReportMatcher  = PathPatternRequestMatcher.withDefaults().matcher(CST_REPORT_URL_PATH);
-        uriGraphQLMatcher = PathPatternRequestMatcher.withDefaults().matcher(CST_GRAPHPQL_URL_PATH);
-        uriHealthMatcher  = PathPatternRequestMatcher.withDefaults().matcher(CST_HEALTH_URL_PATH);
-
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
     }
@@ -94,9 +75,16 @@ public class AuthentificationTokenFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
-            String jwt = parseJwt(request);
+        String jwt = parseJwt(request);
+
+        // No credentials (anonymous request): nothing to authenticate.
+        // Fast path, without exception (no stack trace) and without logging.
+        if (jwt == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        try {
             // Check the "whitelist".
             // Valid API/JWT tokens should be in a VAULT.
             // Put your logic here.
@@ -119,20 +107,44 @@ public class AuthentificationTokenFilter extends OncePerRequestFilter {
     @Override
     @SuppressWarnings("null")
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        if (uriApiMatcher.matcher(request).isMatch()     ||
-            uriReportMatcher.matcher(request).isMatch()  || 
-            uriGraphQLMatcher.matcher(request).isMatch() ||
-            uriHealthMatcher.matcher(request).isMatch())
-            return false;   // Don't forget... The question is "shouldNotFilter".
-                            // This is a negation.
-        return true;
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (StringUtils.hasLength(contextPath) && path.startsWith(contextPath))
+            path = path.substring(contextPath.length());
+
+        return ! isSecuredPath(path); // Don't forget... The question is "shouldNotFilter".
+                                      // This is a negation.
+    }
+
+    // Precompiled prefix dispatch. Same result as the path patterns:
+    //   /api/**, /report/**, /graphql**, /health/**.
+    // A single character switch rejects most of the paths (/app/**, /swagger-ui/**, ...)
+    // without evaluating any pattern.
+    static boolean isSecuredPath(String path) {
+        if ((path == null) || (path.length() < 4) || (path.charAt(0) != '/'))
+            return false;
+
+        switch (path.charAt(1)) {
+            case 'a': return isUnderPrefix(path, CST_API_URL_PATH);
+            case 'r': return isUnderPrefix(path, CST_REPORT_URL_PATH);
+            case 'h': return isUnderPrefix(path, CST_HEALTH_URL_PATH);
+            case 'g': return path.startsWith(CST_GRAPHPQL_URL_PATH) && 
+                             (path.indexOf('/', CST_GRAPHPQL_URL_PATH.length()) < 0); // Same segment only.
+            default:  return false;
+        }
+    }
+
+    // "/prefix/**": the prefix itself or anything below it.
+    private static boolean isUnderPrefix(String path, String prefix) {
+        return path.startsWith(prefix) && 
+               ((path.length() == prefix.length()) || (path.charAt(prefix.length()) == '/'));
     }
 
     private String parseJwt(HttpServletRequest request) {
         String headerAuthorization = request.getHeader(CST_AUTHORIZATION_HEADER);
 
         if (! StringUtils.hasText(headerAuthorization))
-            throw new JwtException("The HTTP <Authorization Bearer> header is empty (or not present).");
+            return null; // The HTTP <Authorization Bearer> header is empty (or not present).
 
         Optional<String> jetonJWT = Optional
             //.ofNullable(request.getHeader(CST_AUTHORIZATION_HEADER)) For this example ... Let's support without Bearer.
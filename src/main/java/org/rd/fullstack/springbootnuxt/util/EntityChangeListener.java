@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/*
+ * JPA entity listener (see @EntityListeners on the entities): every write invalidates the
+ * GraphQL response cache. Created by Hibernate through the Spring bean container (constructor
+ * injection). Invalidated at once (the flush) and again after the commit, so a response read
+ * between the flush and the commit is not kept.
+ * The inventory writes are also published as InventoryChange events. The listeners use
+ * @TransactionalEventListener: delivered after the commit, dropped on rollback.
+ */
+public class EntityChangeListener {
+
+    private final GraphQLResponseCache responseCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityChangeListener(GraphQLResponseCache responseCache, ApplicationEventPublisher eventPublisher) {
+        super();
+        this.responseCache  = responseCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // The "before" quantity of the next inventory change.
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof Inventory inventory)
+            inventory.setLoadedQty(inventory.getQty());
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        onChange(entity, InventoryChange.Type.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        onChange(entity, InventoryChange.Type.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        onChange(entity, InventoryChange.Type.DELETED);
+    }
+
+    private void onChange(Object entity, InventoryChange.Type type) {
+        if (entity instanceof Inventory inventory) {
+            eventPublisher.publishEvent(InventoryChange.of(inventory, type));
+            inventory.setLoadedQty(inventory.getQty()); // Next flush of the same transaction.
+        }
+
+        responseCache.invalidate();
+
+        // Once per transaction, not once per entity.
+        if (TransactionSynchronizationManager.isSynchronizationActive() &&
+            ! TransactionSynchronizationManager.hasResource(responseCache)) {
+            TransactionSynchronizationManager.bindResource(responseCache, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    responseCache.invalidate();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(responseCache);
+                }
+            });
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.rd.fullstack.springbootnuxt.util;
 
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
@@ -44,4 +46,14 @@ public class ExceptionHandlerGraphQL extends DataFetcherExceptionResolverAdapter
               .location(env.getField().getSourceLocation())
               .build();
     }
+
+    // Query rejected before the execution (depth/cost limits, see GraphQLCostAnalyzer).
+    public GraphQLError resolveQueryRejected(String code, String message) {
+        logger.warn("GraphQL query rejected : {}.", message);
+        return GraphqlErrorBuilder.newError()
+              .errorType(ErrorType.ExecutionAborted)
+              .message(message)
+              .extensions(Map.of("code", code))
+              .build();
+    }
 }
\ No newline at end of file
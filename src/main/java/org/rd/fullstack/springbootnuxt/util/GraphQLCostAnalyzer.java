@@ -0,0 +1,272 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.util.List;
+import java.util.Map;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.Argument;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.IntValue;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.TypeName;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Static query cost analysis, before the execution (after the validation).
+ * - Field cost:  the "@cost(weight)" directive of the schema, otherwise 1.
+ * - List fields: the cost of the sub-selection is multiplied by the list size. The size is
+ *                taken from the pagination arguments (first/last/limit), otherwise from the
+ *                "@listSize(assumedSize)" directive, otherwise the default list size.
+ *                The paginated fields (connections) are counted as lists.
+ * - Depth:       number of nested fields. Introspection fields (__schema, __type...) are ignored.
+ * A query too deep or too expensive is aborted. The error is built by ExceptionHandlerGraphQL.
+ * Metrics: graphql.query.cost (summary) and graphql.query.rejected (counter, by reason).
+ */
+public class GraphQLCostAnalyzer extends SimplePerformantInstrumentation {
+
+    public static final String CST_TOO_DEEP   = "QUERY_TOO_DEEP";
+    public static final String CST_TOO_COSTLY = "QUERY_TOO_COSTLY";
+
+    private static final String CST_COST_DIRECTIVE      = "cost";
+    private static final String CST_LIST_SIZE_DIRECTIVE = "listSize";
+    private static final String[] CST_PAGINATION_ARGS   = { "first", "last", "limit" };
+
+    private final int  maxDepth;
+    private final long maxCost;
+    private final int  defaultListSize;
+    private final ExceptionHandlerGraphQL exceptionHandler;
+
+    private final DistributionSummary costSummary;
+    private final Counter depthRejections;
+    private final Counter costRejections;
+
+    public GraphQLCostAnalyzer(int maxDepth, long maxCost, int defaultListSize,
+                               ExceptionHandlerGraphQL exceptionHandler, MeterRegistry meterRegistry) {
+        super();
+        if ((maxDepth <= 0) || (maxCost <= 0) || (defaultListSize <= 0))
+            throw new IllegalArgumentException("Invalid GraphQL query limits: depth " + maxDepth +
+                                               ", cost " + maxCost + ", list size " + defaultListSize + ".");
+
+        this.maxDepth         = maxDepth;
+        this.maxCost          = maxCost;
+        this.defaultListSize  = defaultListSize;
+        this.exceptionHandler = exceptionHandler;
+
+        this.costSummary = DistributionSummary.builder("graphql.query.cost")
+                                              .description("Static cost of the GraphQL queries.")
+                                              .register(meterRegistry);
+        this.depthRejections = rejections(meterRegistry, "depth");
+        this.costRejections  = rejections(meterRegistry, "cost");
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        GraphQLSchema schema = context.getGraphQLSchema();
+        OperationDefinition operation = context.getOperationDefinition();
+
+        Analysis analysis = new Analysis(schema, context.getFragmentsByName(), context.getCoercedVariables().toMap());
+        long cost = analysis.cost(rootType(schema, operation), operation.getSelectionSet(), 1);
+
+        if (analysis.depth > maxDepth) {
+            depthRejections.increment();
+            throw abort(CST_TOO_DEEP, "The query depth exceeds the maximum depth (" + maxDepth + ").");
+        }
+
+        costSummary.record(cost);
+        if (cost > maxCost) {
+            costRejections.increment();
+            throw abort(CST_TOO_COSTLY, "The query cost (" + cost + ") exceeds the maximum cost (" + maxCost + ").");
+        }
+
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    public long getMaxCost() {
+        return maxCost;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private static GraphQLFieldsContainer rootType(GraphQLSchema schema, OperationDefinition operation) {
+        return switch (operation.getOperation()) {
+            case MUTATION     -> schema.getMutationType();
+            case SUBSCRIPTION -> schema.getSubscriptionType();
+            default           -> schema.getQueryType();
+        };
+    }
+
+    private AbortExecutionException abort(String code, String message) {
+        GraphQLError error = exceptionHandler.resolveQueryRejected(code, message);
+        return new AbortExecutionException(List.of(error));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("graphql.query.rejected")
+                      .description("GraphQL queries rejected by the cost analysis.")
+                      .tag("reason", reason)
+                      .register(meterRegistry);
+    }
+
+    // One analysis per request: the fragments and the variables of the request.
+    private final class Analysis {
+        private final GraphQLSchema schema;
+        private final Map<String, FragmentDefinition> fragments;
+        private final Map<String, Object> variables;
+        private int depth;
+
+        private Analysis(GraphQLSchema schema, Map<String, FragmentDefinition> fragments, Map<String, Object> variables) {
+            this.schema    = schema;
+            this.fragments = fragments;
+            this.variables = variables;
+            this.depth     = 0;
+        }
+
+        private long cost(GraphQLFieldsContainer parentType, SelectionSet selectionSet, int level) {
+            long cost = 0;
+            if ((parentType == null) || (selectionSet == null))
+                return cost;
+
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (depth > maxDepth)
+                    return cost; // Already rejected: no need to go further (nor to blow the stack).
+
+                if (selection instanceof Field field)
+                    cost = add(cost, cost(parentType, field, level));
+                else if (selection instanceof InlineFragment fragment)
+                    cost = add(cost, cost(typeCondition(parentType, fragment.getTypeCondition()),
+                                          fragment.getSelectionSet(), level));
+                else if (selection instanceof FragmentSpread spread) {
+                    FragmentDefinition fragment = fragments.get(spread.getName());
+                    if (fragment != null)
+                        cost = add(cost, cost(typeCondition(parentType, fragment.getTypeCondition()),
+                                              fragment.getSelectionSet(), level));
+                }
+            }
+            return cost;
+        }
+
+        private long cost(GraphQLFieldsContainer parentType, Field field, int level) {
+            if (field.getName().startsWith("__"))
+                return 0; // Introspection.
+
+            GraphQLFieldDefinition definition = parentType.getFieldDefinition(field.getName());
+            if (definition == null)
+                return 0;
+
+            depth = Math.max(depth, level);
+            long weight = intArgument(definition.getAppliedDirective(CST_COST_DIRECTIVE), "weight", 1);
+
+            GraphQLOutputType type = definition.getType();
+            GraphQLType unwrapped = GraphQLTypeUtil.unwrapAll(type);
+            long children = (unwrapped instanceof GraphQLFieldsContainer container)
+                ? cost(container, field.getSelectionSet(), level + 1)
+                : 0;
+
+            // Lists and paginated fields (connections): the sub-selection is repeated.
+            Long pageSize = pageSize(field);
+            GraphQLAppliedDirective listSize = definition.getAppliedDirective(CST_LIST_SIZE_DIRECTIVE);
+            if ((pageSize != null) || (listSize != null) || GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(type)))
+                children = multiply(children, (pageSize != null)
+                    ? pageSize
+                    : intArgument(listSize, "assumedSize", defaultListSize));
+            return add(weight, children);
+        }
+
+        private Long pageSize(Field field) {
+            for (String name : CST_PAGINATION_ARGS) {
+                for (Argument argument : field.getArguments()) {
+                    if (! name.equals(argument.getName()))
+                        continue;
+                    Long size = intValue(argument.getValue());
+                    if (size != null)
+                        return Math.max(0, size);
+                }
+            }
+            return null;
+        }
+
+        private Long intValue(Value<?> value) {
+            if (value instanceof IntValue intValue)
+                return intValue.getValue().longValue();
+            if (value instanceof VariableReference reference &&
+                variables.get(reference.getName()) instanceof Number number)
+                return number.longValue();
+            return null;
+        }
+
+        private GraphQLFieldsContainer typeCondition(GraphQLFieldsContainer parentType, TypeName typeCondition) {
+            if (typeCondition == null)
+                return parentType;
+            return (schema.getType(typeCondition.getName()) instanceof GraphQLFieldsContainer container)
+                ? container
+                : null;
+        }
+    }
+
+    private static long intArgument(GraphQLAppliedDirective directive, String name, long defaultValue) {
+        if (directive == null)
+            return defaultValue;
+        GraphQLAppliedDirectiveArgument argument = directive.getArgument(name);
+        return ((argument != null) && (argument.getValue() instanceof Number number)) ? number.longValue() : defaultValue;
+    }
+
+    // Saturated arithmetic: a huge query must not overflow to a small (accepted) cost.
+    private static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long multiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
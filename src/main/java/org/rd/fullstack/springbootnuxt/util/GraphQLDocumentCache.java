@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+/*
+ * Bounded (LRU) cache of the parsed and validated GraphQL documents, keyed by SHA-256.
+ * A cached document skips the parsing and the validation.
+ *
+ * Also supports the Automatic Persisted Queries (APQ) protocol:
+ *   extensions = { "persistedQuery": { "version": 1, "sha256Hash": "<hash>" } }
+ * - Hash only, known:   the cached document is executed.
+ * - Hash only, unknown: "PersistedQueryNotFound". The client sends the query and the hash.
+ * - Query and hash:     the hash is verified, the document is parsed, validated and cached.
+ * Only the valid documents are cached.
+ */
+public class GraphQLDocumentCache implements PreparsedDocumentProvider {
+
+    private static final String CST_PERSISTED_QUERY = "persistedQuery";
+    private static final String CST_SHA256_HASH     = "sha256Hash";
+
+    private final int capacity;
+    private final ReentrantLock lock;
+    private final LinkedHashMap<String, PreparsedDocumentEntry> documents; // Access order (LRU).
+
+    public GraphQLDocumentCache(int capacity) {
+        super();
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity + ".");
+
+        this.capacity  = capacity;
+        this.lock      = new ReentrantLock();
+        this.documents = new LinkedHashMap<>(capacity, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+                return size() > GraphQLDocumentCache.this.capacity;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                       Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        // Hash only: ExecutionInput replaces the empty query with the persisted query marker.
+        String  query         = executionInput.getQuery();
+        boolean bQuery        = (query != null) && ! query.isBlank() &&
+                                ! PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+        String  persistedHash = getPersistedHash(executionInput.getExtensions());
+
+        if (! bQuery && (persistedHash == null))
+            return parseAndValidateFunction.apply(executionInput); // Let GraphQL report the error.
+
+        String hash = bQuery ? sha256(query) : persistedHash;
+        if ((persistedHash != null) && ! persistedHash.equals(hash))
+            return new PreparsedDocumentEntry(error("PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID"));
+
+        PreparsedDocumentEntry entry = get(hash);
+        if (entry != null)
+            return entry;
+
+        if (! bQuery)
+            return new PreparsedDocumentEntry(error("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND"));
+
+        entry = parseAndValidateFunction.apply(executionInput);
+        if (! entry.hasErrors())
+            put(hash, entry);
+        return entry;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // Always available (JCA).
+        }
+    }
+
+    private PreparsedDocumentEntry get(String hash) {
+        lock.lock();
+        try {
+            return documents.get(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String hash, PreparsedDocumentEntry entry) {
+        lock.lock();
+        try {
+            documents.put(hash, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String getPersistedHash(Map<String, Object> extensions) {
+        if ((extensions == null) || ! (extensions.get(CST_PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery))
+            return null;
+
+        Object hash = persistedQuery.get(CST_SHA256_HASH);
+        return (hash instanceof String strHash && ! strHash.isBlank()) ? strHash.toLowerCase() : null;
+    }
+
+    private static GraphQLError error(String message, String code) {
+        return GraphqlErrorBuilder.newError()
+                                  .message(message)
+                                  .extensions(Map.of("code", code))
+                                  .build();
+    }
+}
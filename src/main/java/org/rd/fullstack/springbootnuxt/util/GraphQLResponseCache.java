@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.DigestUtils;
+
+/*
+ * Short-TTL cache of the GraphQL GET responses (see HttpGetHandlerGraphQl).
+ * - Key: hash of the document (or the persisted query hash), the operation, the variables and
+ *        the roles of the principal. Two users with the same roles share the same entries.
+ * - LRU bounded. A TTL of 0 disables the cache (the ETag support stays active).
+ * - Invalidated on every entity write (see EntityChangeListener). The version prevents an
+ *   in-flight request, started before the write, from caching a stale response.
+ */
+public class GraphQLResponseCache {
+
+    public record CachedResponse(String etag, Map<String, Object> body, long expiration) {}
+
+    private final long ttl;
+    private final int  capacity;
+    private final AtomicLong version;
+    private final ReentrantLock lock;
+    private final LinkedHashMap<String, CachedResponse> responses; // Access order (LRU).
+
+    public GraphQLResponseCache(long ttl, int capacity) {
+        super();
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity + ".");
+
+        this.ttl       = Math.max(0L, ttl);
+        this.capacity  = capacity;
+        this.version   = new AtomicLong();
+        this.lock      = new ReentrantLock();
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > GraphQLResponseCache.this.capacity;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return ttl > 0;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public CachedResponse get(String key) {
+        if (! isEnabled())
+            return null;
+
+        lock.lock();
+        try {
+            CachedResponse response = responses.get(key);
+            if ((response != null) && (System.currentTimeMillis() >= response.expiration())) {
+                responses.remove(key);
+                return null;
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The response is cached only if no write happened since "version" was read.
+    public void put(String key, long version, String etag, Map<String, Object> body) {
+        if (! isEnabled())
+            return;
+
+        lock.lock();
+        try {
+            if (this.version.get() == version)
+                responses.put(key, new CachedResponse(etag, body, System.currentTimeMillis() + ttl));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            version.incrementAndGet();
+            responses.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return responses.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Strong ETag from the serialized response (same digest as ShallowEtagHeaderFilter).
+    public static String etag(byte[] body) {
+        return "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    // If-None-Match: list of ETags, weak or strong (weak comparison), or "*".
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if ((ifNoneMatch == null) || ifNoneMatch.isBlank() || (etag == null))
+            return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+}
@@ -22,46 +22,71 @@ import java.util.UUID;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache.CachedResponse;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.graphql.GraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlHandler;
 import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.support.DefaultGraphQlRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Controller;
-import org.springframework.web.bind.annotation.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import reactor.core.publisher.Mono;
 
-@Controller
+/*
+ * HTTP GET support for /graphql (the starter only supports POST, a GET is answered 405).
+ * Functional handler: routed ahead of the starter's router function (see GraphQLConfig).
+ */
 public class HttpGetHandlerGraphQl {
 
     private static final Log logger = 
         LogFactory.getLog(HttpGetHandlerGraphQl.class);
 
+    // The responses depend on the principal: private, revalidated with the ETag.
+    private static final CacheControl CST_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final WebGraphQlHandler graphQlHandler;
     private final ObjectMapper objectMapper;
+    private final GraphQLResponseCache responseCache;
 
-    public HttpGetHandlerGraphQl(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper) {
+    public HttpGetHandlerGraphQl(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper,
+                                 GraphQLResponseCache responseCache) {
         this.graphQlHandler = graphQlHandler;
         this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+    }
+
+    // Mono: asynchronous response.
+    public ServerResponse handleRequest(ServerRequest request) {
+        Mono<ServerResponse> response = handleRequest(request.param("query").orElse(null),
+                                                      request.param("operationName").orElse(null),
+                                                      request.param("variables").orElse(null),
+                                                      request.param("extensions").orElse(null),
+                                                      request.headers().asHttpHeaders())
+                .map(HttpGetHandlerGraphQl::toServerResponse);
+        return ServerResponse.async(response);
     }
 
-    @GetMapping(value = "/graphql", produces = { MediaType.APPLICATION_JSON_VALUE, "application/graphql-response+json" })
-    @ResponseBody
-    public Mono<ResponseEntity<Map<String, Object>>> handleRequest(
-            @RequestParam(name = "query") String query,
-            @RequestParam(name = "operationName", required = false) String operationName,
-            @RequestParam(name = "variables", required = false) String variablesJson,
-            @RequestHeader Map<String, String> headers) {
+    private Mono<ResponseEntity<Map<String, Object>>> handleRequest(String query, String operationName,
+                                                                   String variablesJson, String extensionsJson,
+                                                                   HttpHeaders httpHeaders) {
         Locale locale = LocaleContextHolder.getLocale();
-        HttpHeaders httpHeaders = new HttpHeaders();
-        headers.forEach(httpHeaders::add);
 
-        Map<String, Object> input = Map.of("query", query);
+        // Automatic Persisted Queries: the query can be omitted. Only the hash (extensions) is sent.
+        // See GraphQLDocumentCache.
+        Map<String, Object> input = Map.of("query", (query != null) ? query : "");
 
         try {
             // Préparer le corps de la requête GraphQL
@@ -72,17 +97,30 @@ public class HttpGetHandlerGraphQl {
                 requestInput.put("variables", variables);
             }
 
+            if (extensionsJson != null && !extensionsJson.isBlank()) {
+                Map<String, Object> extensions = objectMapper.readValue(extensionsJson, new TypeReference<>() {});
+                requestInput.put("extensions", extensions);
+            }
+
             if (operationName != null && !operationName.isBlank()) {
                 requestInput.put("operationName", operationName);
             }
 
+            // GraphQlRequest: the body map constructor refuses an empty query (APQ, hash only).
+            @SuppressWarnings("unchecked")
+            GraphQlRequest request = new DefaultGraphQlRequest(
+                (String) requestInput.get("query"),
+                (String) requestInput.get("operationName"),
+                (Map<String, Object>) requestInput.get("variables"),
+                (Map<String, Object>) requestInput.get("extensions")
+            );
             WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(
                 URI.create("/graphql"),
                 httpHeaders,
-                null,
-                null, 
-                requestInput,
+                null, // cookies.
+                null, // remote address.
                 Map.of(), // attributes.
+                request,
                 UUID.randomUUID().toString(),
                 locale
             );
@@ -92,24 +130,87 @@ public class HttpGetHandlerGraphQl {
                 logger.debug("GraphQL Request: " + graphQlRequest);
             }
 
+            // HTTP caching: ETag + If-None-Match, and the (optional) short-TTL response cache.
+            String ifNoneMatch = httpHeaders.getFirst(HttpHeaders.IF_NONE_MATCH);
+            String cacheKey = responseCache.isEnabled() ? cacheKey(requestInput) : null;
+            long version = responseCache.version();
+
+            CachedResponse cached = (cacheKey != null) ? responseCache.get(cacheKey) : null;
+            if (cached != null) {
+                return Mono.just(toResponseEntity(cached.etag(), cached.body(), ifNoneMatch, null));
+            }
+
             return graphQlHandler.handleRequest(graphQlRequest)
                     .map(response -> {
                         if (logger.isDebugEnabled()) {
                             logger.debug("GraphQL Execution complete");
                         }
 
-                        return ResponseEntity
-                                .ok()
-                                .contentType(MediaType.APPLICATION_JSON)
-                                .headers(respHeaders -> respHeaders.putAll(response.getResponseHeaders()))
-                                .body(response.toMap());
+                        Map<String, Object> body = response.toMap();
+                        String etag = etag(body);
+
+                        // Only the successful responses are cached (no error, no denied field).
+                        if ((cacheKey != null) && (etag != null) && response.isValid() && response.getErrors().isEmpty()) {
+                            responseCache.put(cacheKey, version, etag, body);
+                        }
+
+                        return toResponseEntity(etag, body, ifNoneMatch, response.getResponseHeaders());
                     });
 
         } catch (Exception e) {
-            logger.error("Failed to parse variables JSON", e);
+            logger.error("Failed to parse variables/extensions JSON", e);
             return Mono.just(ResponseEntity.badRequest().body(Map.of(
-                    "errors", java.util.List.of(Map.of("message", "Invalid 'variables' JSON"))
+                    "errors", java.util.List.of(Map.of("message", "Invalid 'variables' or 'extensions' JSON"))
             )));
         }
     }
+
+    private static ServerResponse toServerResponse(ResponseEntity<Map<String, Object>> entity) {
+        ServerResponse.BodyBuilder builder = ServerResponse
+                .status(entity.getStatusCode())
+                .headers(headers -> headers.addAll(entity.getHeaders()));
+        return (entity.getBody() != null) ? builder.body(entity.getBody()) : builder.build();
+    }
+
+    private ResponseEntity<Map<String, Object>> toResponseEntity(String etag, Map<String, Object> body,
+                                                                 String ifNoneMatch, HttpHeaders responseHeaders) {
+        if (GraphQLResponseCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CST_CACHE_CONTROL)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CST_CACHE_CONTROL);
+        if (responseHeaders != null) {
+            builder.headers(respHeaders -> respHeaders.putAll(responseHeaders));
+        }
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(body);
+    }
+
+    private String etag(Map<String, Object> body) {
+        try {
+            return GraphQLResponseCache.etag(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            logger.warn("Unable to compute the ETag", e);
+            return null;
+        }
+    }
+
+    // Document (or persisted query hash), operation and variables (sorted keys), and the roles.
+    private String cacheKey(Map<String, Object> requestInput) throws JsonProcessingException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int roles = (authentication != null) ? Role.toAuthoritiesMask(authentication.getAuthorities()) : 0;
+
+        String input = objectMapper.writer()
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValueAsString(requestInput);
+        return GraphQLDocumentCache.sha256(roles + ":" + input);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * In-memory ring of asymmetric signing keys (EdDSA/Ed25519 or ECDSA/P-256).
+ * - The "current" key signs the tokens.
+ * - The "next" key is already published (JWKS), so the verifiers caching the key set
+ *   know it before the first token is signed with it.
+ * - The retired keys stay published (and usable for verification) during the retention
+ *   period. Normally: the token expiration.
+ * The rotation is lazy: checked when a token is signed. No thread, no scheduler.
+ */
+public class JwtKeyRing {
+
+    public static final String CST_EDDSA = "EdDSA";
+    public static final String CST_ES256 = "ES256";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final String algorithm;
+    private final long   rotation;
+    private final long   retention;
+
+    private final ReentrantLock lock;
+    private final Map<String, SigningKey> keys; // By kid. Current, next and retired keys.
+
+    private volatile SigningKey current;
+    private volatile SigningKey next;
+    private volatile Map<String, Object> jwkSet;
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey,
+                             long activation, long expiration) {}
+
+    public JwtKeyRing(String algorithm, long rotation, long retention) {
+        super();
+        if (! CST_EDDSA.equals(algorithm) && ! CST_ES256.equals(algorithm))
+            throw new IllegalArgumentException("Unsupported signature algorithm: " + algorithm + ".");
+        if (rotation <= 0)
+            throw new IllegalArgumentException("Invalid key rotation period: " + rotation + ".");
+
+        this.algorithm = algorithm;
+        this.rotation  = rotation;
+        this.retention = Math.max(0L, retention);
+        this.lock      = new ReentrantLock();
+        this.keys      = new ConcurrentHashMap<>();
+
+        long now = System.currentTimeMillis();
+        this.current = newKey(now);
+        this.next    = newKey(now + rotation);
+        publish();
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public SigningKey current() {
+        SigningKey key = current;
+        if (System.currentTimeMillis() >= key.activation() + rotation)
+            key = rotate(false);
+        return key;
+    }
+
+    public PublicKey find(String kid) {
+        SigningKey key = (kid == null) ? null : keys.get(kid);
+        if ((key == null) || (System.currentTimeMillis() > key.expiration()))
+            return null;
+        return key.publicKey();
+    }
+
+    public Map<String, Object> getJwkSet() {
+        return jwkSet;
+    }
+
+    public SigningKey rotate() {
+        return rotate(true);
+    }
+
+    private SigningKey rotate(boolean bForce) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (! bForce && (now < current.activation() + rotation))
+                return current; // Already done by another thread.
+
+            // The current key is retired. It can verify until the last token signed expires.
+            SigningKey retired = current;
+            keys.put(retired.kid(), new SigningKey(retired.kid(), null, retired.publicKey(),
+                                                   retired.activation(), now + retention));
+
+            current = new SigningKey(next.kid(), next.privateKey(), next.publicKey(), now, Long.MAX_VALUE);
+            keys.put(current.kid(), current);
+            next = newKey(now + rotation);
+
+            keys.values().removeIf(key -> now > key.expiration());
+            publish();
+
+            logger.info("JWT signing key rotation. Current key: {}, retired key: {}.", current.kid(), retired.kid());
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SigningKey newKey(long activation) {
+        KeyPair keyPair = generateKeyPair();
+        SigningKey key = new SigningKey(UUID.randomUUID().toString(), keyPair.getPrivate(), keyPair.getPublic(),
+                                        activation, Long.MAX_VALUE);
+        keys.put(key.kid(), key);
+        return key;
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            if (CST_EDDSA.equals(algorithm))
+                return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to generate the signing key: " + ex.getMessage(), ex);
+        }
+    }
+
+    // The JWK set (RFC 7517) is rebuilt only when the ring changes. Immutable and shared.
+    private void publish() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keys.values().forEach(key -> jwks.add(toJwk(key)));
+        jwkSet = Collections.singletonMap("keys", Collections.unmodifiableList(jwks));
+    }
+
+    private Map<String, Object> toJwk(SigningKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        byte[] encoded = key.publicKey().getEncoded();
+
+        if (CST_EDDSA.equals(algorithm)) { // RFC 8037. Raw key: the last 32 bytes of the X.509 encoding.
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", base64Url(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+        } else {
+            ECPublicKey ecKey = (ECPublicKey) key.publicKey();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(toUnsigned(ecKey.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(toUnsigned(ecKey.getW().getAffineY(), 32)));
+        }
+
+        jwk.put("kid", key.kid());
+        jwk.put("alg", algorithm);
+        jwk.put("use", "sig");
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    private static byte[] toUnsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == length)
+            return bytes;
+
+        byte[] result = new byte[length]; // Remove the sign byte or pad with zeros.
+        int count = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - count, result, length - count, count);
+        return result;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -15,12 +15,14 @@
  */
 package org.rd.fullstack.springbootnuxt.util;
 
+import java.security.Key;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import javax.crypto.SecretKey;
 
@@ -28,14 +30,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Header;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
@@ -44,64 +49,104 @@ public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final Map<String, Object> CST_EMPTY_JWK_SET = 
+        Collections.singletonMap("keys", Collections.emptyList());
+
     final private String CST_SECRET;
     final private int    CST_EXPIRATION;
     final private String CST_AUTHORITIES;
 
+    final private JwtKeyRing keyRing;   // NULL: HS256 (shared secret) signature.
+    final private SecretKey  hmacKey;
+    final private boolean    legacyHs256; // Key ring: the HS256 tokens (no kid) are still accepted.
+    final private JwtParser  parser;    // Immutable and thread safe. Built once.
+
     protected JwtUtils() {
         super();
         this.CST_SECRET = null;
         this.CST_EXPIRATION = -1;
         this.CST_AUTHORITIES = null;
+        this.keyRing = null;
+        this.hmacKey = null;
+        this.legacyHs256 = false;
+        this.parser  = null;
     }
 
     public JwtUtils(@Value("${org.rd.fullstack.springbootnnuxt.secret}") String secret,
                     @Value("${org.rd.fullstack.springbootnnuxt.expiration}") int expiration,
                     @Value("${org.rd.fullstack.springbootnnuxt.authorities}") String authorities) {
+        this(secret, expiration, authorities, null);
+    }
+
+    public JwtUtils(String secret, int expiration, String authorities, JwtKeyRing keyRing) {
+        this(secret, expiration, authorities, keyRing, false);
+    }
+
+    public JwtUtils(String secret, int expiration, String authorities, JwtKeyRing keyRing, boolean legacyHs256) {
         super();
         this.CST_SECRET = secret;
         this.CST_EXPIRATION = expiration;
         this.CST_AUTHORITIES = authorities;
+        this.keyRing = keyRing;
+        this.hmacKey = getSigningKey();
+        this.legacyHs256 = legacyHs256;
+
+        // The key is located with the token header:
+        // - kid present: public key from the key ring (EdDSA/ES256).
+        // - kid absent:  shared secret (HS256). With the key ring, only if "legacyHs256" (migration
+        //   window for the tokens issued before it): otherwise, anyone with the secret could sign.
+        this.parser = Jwts.parser().keyLocator(this::locateKey).build();
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        String authorities            = authentication.getAuthorities()
-                                                      .stream()
-                                                      .map(GrantedAuthority::getAuthority)
-                                                      .collect(Collectors.joining(","));
-        return Jwts.builder()
-                   .id(UUID.randomUUID().toString())
-                   .subject(userPrincipal.getUsername())
-                   .claim(CST_AUTHORITIES, authorities)
-                   .issuedAt(new Date())
-                   .expiration(new Date((new Date()).getTime() + CST_EXPIRATION))
-                   .signWith(getSigningKey()) 
-                   .compact();
+        int authorities               = Role.toAuthoritiesMask(authentication.getAuthorities()); // Compact format.
+        JwtBuilder builder            = Jwts.builder()
+                                            .id(UUID.randomUUID().toString())
+                                            .subject(userPrincipal.getUsername())
+                                            .claim(CST_AUTHORITIES, authorities)
+                                            .issuedAt(new Date())
+                                            .expiration(new Date((new Date()).getTime() + CST_EXPIRATION));
+        if (keyRing == null)
+            return builder.signWith(hmacKey).compact();
+
+        JwtKeyRing.SigningKey signingKey = keyRing.current();
+        return builder.header().keyId(signingKey.kid()).and()
+                      .signWith(signingKey.privateKey()) // EdDSA or ES256, according to the key.
+                      .compact();
+    }
+
+    public Map<String, Object> getJwkSet() {
+        return (keyRing == null) ? CST_EMPTY_JWK_SET : keyRing.getJwkSet(); // Never the shared secret.
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload().getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     public List<Role> getAuthoritiesFromJwtToken(String token) {
+        Object authorities = parser.parseSignedClaims(token).getPayload().get(CST_AUTHORITIES);
+
+        // Compact format: the roles are encoded as a bitmask (see Role).
+        // The decoded list is cached and immutable. No parsing, no allocation.
+        if (authorities instanceof Number mask)
+            return Role.fromMask(mask.intValue());
+
+        // Legacy format: the roles are a comma separated list of names.
+        // Still accepted for the tokens issued before the compact format.
         List<Role> roles = new ArrayList<Role>();
-        String authorities = Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload().get(CST_AUTHORITIES, String.class);
-        if (authorities != null && ! authorities.isEmpty()) {
-            StringTokenizer tokenizer = new StringTokenizer(authorities, ",");
+        if (authorities instanceof String strAuthorities && ! strAuthorities.isEmpty()) {
+            StringTokenizer tokenizer = new StringTokenizer(strAuthorities, ",");
             while (tokenizer.hasMoreElements()) {
                 roles.add(Role.valueOf(tokenizer.nextToken()));
             }
         }
-        return roles;
+        return Role.fromMask(Role.toMask(roles));
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
+            parser.parseSignedClaims(authToken);
             return true;
         } catch (SignatureException ex) {
             logger.error("Invalid JWT signature: {}", ex.getMessage());
@@ -121,7 +166,7 @@ public class JwtUtils {
     public String decodeJwtToken(String jwtToken) {
         Jws<Claims> jws;
         try {
-            jws = Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(jwtToken);
+            jws = parser.parseSignedClaims(jwtToken);
         }
         catch (JwtException ex) {
             logger.error("JWT token is invalid: {}.", ex.getMessage());
@@ -130,6 +175,20 @@ public class JwtUtils {
         return jws.getPayload().toString();
     }
 
+    private Key locateKey(Header header) {
+        String kid = (header instanceof ProtectedHeader protectedHeader) ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            if ((keyRing != null) && ! legacyHs256)
+                throw new SignatureException("Token without key id: HS256 is refused with the key ring.");
+            return hmacKey;
+        }
+
+        Key publicKey = (keyRing == null) ? null : keyRing.find(kid);
+        if (publicKey == null)
+            throw new SignatureException("Unknown (or expired) signing key: " + kid + ".");
+        return publicKey;
+    }
+
     private SecretKey getSigningKey() {
         byte[] keyBytes = CST_SECRET.getBytes();
         return Keys.hmacShaKeyFor(keyBytes);
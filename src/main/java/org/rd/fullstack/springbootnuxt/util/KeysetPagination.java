@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.graphql.data.query.ScrollSubrange;
+
+/*
+ * Keyset pagination for the GraphQL connections (Relay: first/after).
+ * - The cursor is the id of the last row (KeysetScrollPosition, encoded by the starter).
+ * - The repository reads "WHERE id > :after ORDER BY id" with a limit of (page size + 1):
+ *   no OFFSET, no COUNT, and the memory is bounded by the page size.
+ * - The extra row only tells whether there is a next page. It is not returned.
+ */
+public class KeysetPagination {
+    private KeysetPagination() {} // Static usage only.
+
+    public static final int CST_DEFAULT_PAGE_SIZE = 20;
+    public static final int CST_MAX_PAGE_SIZE     = 100;
+
+    // The last id of the previous page (-1: first page, the identities start at 0).
+    public static long after(ScrollSubrange subrange, String key) {
+        ScrollPosition position = subrange.position().orElse(null);
+        if ((position instanceof KeysetScrollPosition keyset) && (keyset.getKeys().get(key) instanceof Number id))
+            return id.longValue();
+        return -1L;
+    }
+
+    public static int pageSize(ScrollSubrange subrange) {
+        int count = subrange.count().orElse(CST_DEFAULT_PAGE_SIZE);
+        return Math.clamp(count, 0, CST_MAX_PAGE_SIZE);
+    }
+
+    // Fetch one more row than the page size: the "hasNext" test.
+    public static Limit limit(ScrollSubrange subrange) {
+        return Limit.of(pageSize(subrange) + 1);
+    }
+
+    public static <T> Window<T> window(List<T> rows, ScrollSubrange subrange, String key, Function<T, Long> id) {
+        int pageSize = pageSize(subrange);
+        boolean bNext = rows.size() > pageSize;
+        List<T> page = bNext ? rows.subList(0, pageSize) : rows;
+
+        return Window.from(page, index -> ScrollPosition.forward(Map.of(key, id.apply(page.get(index)))), bNext);
+    }
+}
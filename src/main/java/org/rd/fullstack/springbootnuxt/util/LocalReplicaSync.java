@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Development and tests: in-memory HSQLDB read replicas (see ReplicaRoutingDataSource).
+ * - Each replica has its own database (jdbc:hsqldb:mem:replicaN) and the same schema.
+ * - Kept in sync by copy: the tables of the primary are copied in one replica transaction,
+ *   every "interval" ms (the replication lag) or on demand (sync).
+ * - The first copy is done by start(), before the web server opens: the read-only transactions
+ *   never see an empty replica.
+ * - A full copy: for the local datasets only, not a replication mechanism.
+ */
+public class LocalReplicaSync implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(LocalReplicaSync.class);
+
+    private static final String[] CST_TABLES     = { "PERSON", "PRODUCT", "INVENTORY", "LOW_STOCK_THRESHOLD" }; // Foreign keys order.
+    private static final int      CST_BATCH_SIZE = 1000;
+    private static final int      CST_PHASE      = SmartLifecycle.DEFAULT_PHASE - 4096; // Web server: DEFAULT_PHASE - 2048.
+
+    private final DataSource source;
+    private final Map<String, HikariDataSource> replicas;
+    private final long interval;
+    private final ReentrantLock lock;
+    private final AtomicBoolean running;
+
+    private ScheduledExecutorService scheduler;
+
+    public LocalReplicaSync(DataSource source, int count, Resource schema, long interval) {
+        super();
+        this.source   = source;
+        this.replicas = new LinkedHashMap<>();
+        this.interval = interval;
+        this.lock     = new ReentrantLock();
+        this.running  = new AtomicBoolean(false);
+
+        for (int i = 1; i <= count; i++) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:hsqldb:mem:replica" + i);
+            config.setUsername("sa");
+            config.setPassword("");
+            config.setPoolName("replica-" + i);
+            config.setMaximumPoolSize(4);
+            config.setMinimumIdle(1);
+
+            HikariDataSource dataSource = new HikariDataSource(config);
+            new ResourceDatabasePopulator(schema).execute(dataSource);
+            replicas.put(config.getPoolName(), dataSource);
+        }
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return Collections.unmodifiableMap(replicas);
+    }
+
+    // Copies the primary into every replica. Returns the number of rows copied per replica.
+    public long sync() {
+        lock.lock();
+        try {
+            long rows = 0;
+            for (Map.Entry<String, HikariDataSource> replica : replicas.entrySet())
+                rows = copy(replica.getValue());
+            return rows;
+        } catch (SQLException ex) {
+            logger.error("Local replicas sync exception: {}.", ex.getMessage(), ex);
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long copy(DataSource replica) throws SQLException {
+        try (Connection src = source.getConnection(); Connection dst = replica.getConnection()) {
+            src.setAutoCommit(false); // One snapshot for all the tables.
+            dst.setAutoCommit(false);
+            try {
+                try (Statement statement = dst.createStatement()) {
+                    for (int i = CST_TABLES.length - 1; i >= 0; i--)
+                        statement.executeUpdate("DELETE FROM " + CST_TABLES[i]);
+                }
+
+                long rows = 0;
+                for (String table : CST_TABLES)
+                    rows += copyTable(src, dst, table);
+
+                dst.commit();
+                src.commit();
+                return rows;
+            } catch (SQLException ex) {
+                dst.rollback();
+                src.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    private static long copyTable(Connection src, Connection dst, String table) throws SQLException {
+        try (Statement select = src.createStatement();
+             ResultSet rs = select.executeQuery("SELECT * FROM " + table)) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columns = metaData.getColumnCount();
+
+            StringBuilder names = new StringBuilder();
+            for (int i = 1; i <= columns; i++)
+                names.append((i == 1) ? "" : ", ").append(metaData.getColumnName(i));
+            String sql = "INSERT INTO " + table + " (" + names + ") VALUES (" + "?, ".repeat(columns - 1) + "?)";
+
+            long rows = 0;
+            try (PreparedStatement insert = dst.prepareStatement(sql)) {
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++)
+                        insert.setObject(i, rs.getObject(i));
+                    insert.addBatch();
+                    if ((++rows % CST_BATCH_SIZE) == 0)
+                        insert.executeBatch();
+                }
+                if ((rows % CST_BATCH_SIZE) > 0) // Nothing pending: HSQLDB refuses an empty batch.
+                    insert.executeBatch();
+            }
+            return rows;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (! running.compareAndSet(false, true))
+            return;
+
+        logger.info("Starting the local replicas sync: {} replica(s), every {} ms.", replicas.size(), interval);
+        long rows = sync();
+        logger.info("Local replicas initial sync: {} rows.", rows);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("local-replica-sync").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (! running.compareAndSet(true, false))
+            return;
+
+        logger.info("Stopping the local replicas sync.");
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public int getPhase() {
+        return CST_PHASE;
+    }
+
+    public void close() {
+        stop();
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
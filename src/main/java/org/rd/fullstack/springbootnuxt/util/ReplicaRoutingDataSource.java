@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Read replicas: the connections of the read-only transactions (see DatabaseConfig,
+ * LazyConnectionDataSourceProxy.setReadOnlyDataSource).
+ * - Load balancing: round robin on the healthy replicas.
+ * - Health: a replica that fails to give a connection is skipped during the retry delay,
+ *   then tried again (passive check, no thread). Metric: db.replica.up (tag replica).
+ * - Fallback: no healthy replica, the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final List<Replica> replicas;
+    private final long retryDelay;
+    private final AtomicInteger next;
+
+    private volatile DataSource fallback;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long downUntil; // 0: up.
+
+        private Replica(String name, DataSource dataSource) {
+            this.name       = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(Map<String, DataSource> replicas, long retryDelay) {
+        super();
+        this.replicas   = new ArrayList<>();
+        this.retryDelay = retryDelay;
+        this.next       = new AtomicInteger();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    // The primary: used when no replica is available.
+    public void setFallback(DataSource fallback) {
+        this.fallback = fallback;
+    }
+
+    public boolean hasReplicas() {
+        return ! replicas.isEmpty();
+    }
+
+    public boolean isUp(String name) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(name) && (replica.downUntil == 0));
+    }
+
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        replicas.forEach(replica ->
+            Gauge.builder("db.replica.up", replica, value -> (value.downUntil == 0) ? 1 : 0)
+                 .tag("replica", replica.name)
+                 .description("Read replica health (1: up, 0: skipped after a failure).")
+                 .register(meterRegistry));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int count = replicas.size();
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            long now = System.currentTimeMillis();
+            if ((replica.downUntil != 0) && (now < replica.downUntil))
+                continue;
+
+            try {
+                Connection connection = (username == null)
+                    ? replica.dataSource.getConnection()
+                    : replica.dataSource.getConnection(username, password);
+                if (replica.downUntil != 0) {
+                    replica.downUntil = 0;
+                    logger.info("Read replica {} is up.", replica.name);
+                }
+                return connection;
+            } catch (SQLException ex) {
+                replica.downUntil = now + retryDelay;
+                logger.warn("Read replica {} is down (retry in {} ms): {}.", replica.name, retryDelay, ex.getMessage());
+            }
+        }
+
+        if (fallback == null)
+            throw new SQLException("No read replica available and no primary.");
+        return (username == null) ? fallback.getConnection() : fallback.getConnection(username, password);
+    }
+}
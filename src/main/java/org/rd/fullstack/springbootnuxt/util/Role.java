@@ -15,13 +15,95 @@
  */
 package org.rd.fullstack.springbootnuxt.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
 public enum Role {
     ROLE_SELECT,
     ROLE_INSERT,
     ROLE_UPDATE,
     ROLE_DELETE,
-    FACTOR_PASSWORD // is a GrantedAuthority used to indicate that a user has successfully 
-                    // completed the initial password authentication step as part of a multi-factor 
-                    // authentication (MFA) flow. It was introduced in Spring Security 7 to provide
-                    // native support for MFA.
+    FACTOR_PASSWORD; // is a GrantedAuthority used to indicate that a user has successfully 
+                     // completed the initial password authentication step as part of a multi-factor 
+                     // authentication (MFA) flow. It was introduced in Spring Security 7 to provide
+                     // native support for MFA.
+
+    // Compact encoding of a set of roles: one bit per role (bit = ordinal).
+    // Att: Never reorder the constants above. The mask is part of the issued JWT tokens.
+    private static final Role[] CST_ROLES = values();
+    private static final int    CST_MAX_MASK = (1 << CST_ROLES.length) - 1;
+
+    private static final Map<String, Role> CST_ROLES_BY_NAME = new HashMap<>();
+    private static final List<List<Role>> CST_ROLES_BY_MASK = new ArrayList<>();
+    private static final List<List<GrantedAuthority>> CST_AUTHORITIES_BY_MASK = new ArrayList<>();
+
+    static {
+        for (Role role : CST_ROLES)
+            CST_ROLES_BY_NAME.put(role.name(), role);
+
+        // Precompute the (immutable) decoded lists for every possible mask.
+        // 5 roles -> 32 entries. Decoding a token is a simple array lookup.
+        for (int mask = 0; mask <= CST_MAX_MASK; mask++) {
+            List<Role> roles = new ArrayList<>();
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (Role role : CST_ROLES) {
+                if ((mask & role.mask()) != 0) {
+                    roles.add(role);
+                    authorities.add(new SimpleGrantedAuthority(role.name()));
+                }
+            }
+            CST_ROLES_BY_MASK.add(Collections.unmodifiableList(roles));
+            CST_AUTHORITIES_BY_MASK.add(Collections.unmodifiableList(authorities));
+        }
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static Role fromName(String name) {
+        return CST_ROLES_BY_NAME.get(name); // NULL if unknown. No exception.
+    }
+
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles)
+                mask |= role.mask();
+        }
+        return mask;
+    }
+
+    public static int toAuthoritiesMask(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        if (authorities != null) {
+            for (GrantedAuthority authority : authorities) {
+                Role role = fromName(authority.getAuthority());
+                if (role != null) // Authorities unknown to the application are not encoded.
+                    mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    public static List<Role> fromMask(int mask) {
+        return CST_ROLES_BY_MASK.get(checkMask(mask));
+    }
+
+    public static List<GrantedAuthority> authoritiesFromMask(int mask) {
+        return CST_AUTHORITIES_BY_MASK.get(checkMask(mask));
+    }
+
+    private static int checkMask(int mask) {
+        if ((mask < 0) || (mask > CST_MAX_MASK))
+            throw new IllegalArgumentException("Invalid role mask: " + mask + ".");
+        return mask;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/*
+ * Sorted set of primitive longs: blocks of sorted long[] (no boxing, one object per block).
+ * - Add and remove: binary search of the block, then of the value; the shift is bounded by
+ *   the block size. A full block is split in two halves, an empty block is removed.
+ * - Range read: from the first value >= "from", in order, while the consumer accepts.
+ * Not thread-safe: the owner serializes the accesses (see LowStockSrv).
+ */
+public class SortedLongIndex {
+
+    private static final int CST_BLOCK_SIZE = 1024;
+
+    private final List<Block> blocks;
+    private int size;
+
+    private static final class Block {
+        private final long[] values;
+        private int size;
+
+        private Block() {
+            this.values = new long[CST_BLOCK_SIZE];
+            this.size   = 0;
+        }
+
+        private long first() {
+            return values[0];
+        }
+    }
+
+    public SortedLongIndex() {
+        super();
+        blocks = new ArrayList<>();
+        size   = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    public boolean contains(long value) {
+        if (blocks.isEmpty())
+            return false;
+        Block block = blocks.get(blockOf(value));
+        return Arrays.binarySearch(block.values, 0, block.size, value) >= 0;
+    }
+
+    public boolean add(long value) {
+        if (blocks.isEmpty())
+            blocks.add(new Block());
+
+        int index = blockOf(value);
+        Block block = blocks.get(index);
+        int position = Arrays.binarySearch(block.values, 0, block.size, value);
+        if (position >= 0)
+            return false;
+        position = -(position + 1);
+
+        if (block.size == CST_BLOCK_SIZE) {
+            Block upper = new Block();
+            int half = CST_BLOCK_SIZE / 2;
+            System.arraycopy(block.values, half, upper.values, 0, CST_BLOCK_SIZE - half);
+            upper.size = CST_BLOCK_SIZE - half;
+            block.size = half;
+            blocks.add(index + 1, upper);
+            if (position > half) {
+                block = upper;
+                position -= half;
+            }
+        }
+
+        System.arraycopy(block.values, position, block.values, position + 1, block.size - position);
+        block.values[position] = value;
+        block.size++;
+        size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        if (blocks.isEmpty())
+            return false;
+
+        int index = blockOf(value);
+        Block block = blocks.get(index);
+        int position = Arrays.binarySearch(block.values, 0, block.size, value);
+        if (position < 0)
+            return false;
+
+        System.arraycopy(block.values, position + 1, block.values, position, block.size - position - 1);
+        block.size--;
+        size--;
+        if ((block.size == 0) && (blocks.size() > 1))
+            blocks.remove(index);
+        return true;
+    }
+
+    // The values >= "from", in ascending order, until the consumer returns false.
+    public void range(long from, LongPredicate consumer) {
+        if (blocks.isEmpty())
+            return;
+
+        int index = blockOf(from);
+        Block block = blocks.get(index);
+        int position = Arrays.binarySearch(block.values, 0, block.size, from);
+        position = (position >= 0) ? position : -(position + 1);
+
+        for (; index < blocks.size(); index++, position = 0) {
+            block = blocks.get(index);
+            for (int i = position; i < block.size; i++) {
+                if (! consumer.test(block.values[i]))
+                    return;
+            }
+        }
+    }
+
+    // The last block whose first value is <= value (the first block otherwise).
+    private int blockOf(long value) {
+        int low  = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            Block block = blocks.get(middle);
+            if ((block.size > 0) && (block.first() <= value))
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Append-only journal of the stock movements, in memory-mapped segment files.
+ * - Fixed-size records (48 bytes): sequence, timestamp, inventory id, delta, resulting qty, CRC32.
+ *   The replay sums the deltas: the appends of two commits on the same inventory can come out of
+ *   order (after-commit listeners), the sum does not depend on it. The resulting qty is informative.
+ *   A deleted inventory stays deleted (the ids are never reused): its late movements are ignored,
+ *   after a snapshot too (tombstones: CST_DELETED entries of the snapshot, in State.deleted).
+ * - Segments: journal-<first sequence>.seg, "segmentSize" bytes, mapped once. Full: the next one.
+ * - Sync policies: ALWAYS (force at each append), GROUP (force every "groupSize" appends and
+ *   on sync(), called periodically by the owner), OS (the page cache decides).
+ * - Recovery: the records of the last segment are read up to the first invalid one (sequence
+ *   or CRC): a torn record is overwritten by the next append.
+ * - Snapshots: snapshot-<sequence>.snap, the quantities at a sequence (CRC checked, atomic rename).
+ *   Replay = latest valid snapshot + the following records. Compaction deletes the segments
+ *   and the snapshots covered by the latest snapshot.
+ * One writer at a time (lock). No thread: see JournalSrv.
+ */
+public class StockJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    public static final int  CST_RECORD_SIZE = 48;
+    public static final long CST_DELETED     = Long.MIN_VALUE; // Resulting qty of a deleted inventory.
+
+    private static final int    CST_CRC_OFFSET      = 40;
+    private static final String CST_SEGMENT_PREFIX  = "journal-";
+    private static final String CST_SEGMENT_SUFFIX  = ".seg";
+    private static final String CST_SNAPSHOT_PREFIX = "snapshot-";
+    private static final String CST_SNAPSHOT_SUFFIX = ".snap";
+
+    public enum Sync { ALWAYS, GROUP, OS }
+
+    public record Movement(long sequence, long timestamp, long inventoryId, long delta, long qty) {}
+
+    public record State(long sequence, Map<Long, Long> quantities, Set<Long> deleted) {
+        public State(long sequence, Map<Long, Long> quantities) {
+            this(sequence, quantities, Set.of());
+        }
+    }
+
+    private final Path directory;
+    private final int  segmentRecords;
+    private final Sync sync;
+    private final int  groupSize;
+    private final ReentrantLock lock;
+    private final CRC32 crc;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentFirst;    // Sequence of the first record of the current segment.
+    private int  segmentCapacity; // Records.
+    private long nextSequence;
+    private int  unsynced;
+
+    public StockJournal(Path directory, long segmentSize, Sync sync, int groupSize) throws IOException {
+        super();
+        if ((segmentSize < CST_RECORD_SIZE) || (segmentSize / CST_RECORD_SIZE > Integer.MAX_VALUE))
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize + ".");
+
+        this.directory      = Files.createDirectories(directory);
+        this.segmentRecords = (int) (segmentSize / CST_RECORD_SIZE);
+        this.sync           = sync;
+        this.groupSize      = Math.max(1, groupSize);
+        this.lock           = new ReentrantLock();
+        this.crc            = new CRC32();
+        recover();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Nothing written yet (no record, no snapshot).
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return (nextSequence == 1L) && snapshots().isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long append(long inventoryId, long delta, long qty) {
+        lock.lock();
+        try {
+            if ((segment == null) || (nextSequence - segmentFirst >= segmentCapacity))
+                roll();
+
+            long sequence = nextSequence;
+            int offset = (int) (sequence - segmentFirst) * CST_RECORD_SIZE;
+            segment.putLong(offset, sequence);
+            segment.putLong(offset + 8, System.currentTimeMillis());
+            segment.putLong(offset + 16, inventoryId);
+            segment.putLong(offset + 24, delta);
+            segment.putLong(offset + 32, qty);
+            segment.putInt(offset + CST_CRC_OFFSET, checksum(segment, offset));
+            nextSequence++;
+
+            switch (sync) {
+                case ALWAYS -> segment.force(offset, CST_RECORD_SIZE);
+                case GROUP  -> {
+                    if (++unsynced >= groupSize)
+                        force();
+                }
+                case OS     -> { }
+            }
+            return sequence;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal append failure: " + ex.getMessage(), ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // GROUP: the appends since the last force are made durable together.
+    public void sync() {
+        lock.lock();
+        try {
+            if (unsynced > 0)
+                force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State replay() throws IOException {
+        State snapshot = loadSnapshot();
+        Map<Long, Long> quantities = new HashMap<>(snapshot.quantities());
+        Set<Long> deleted = new HashSet<>(snapshot.deleted());
+        long[] last = { snapshot.sequence() };
+
+        for (Path path : segments()) {
+            read(path, snapshot.sequence(), movement -> {
+                if (movement.qty() == CST_DELETED) {
+                    quantities.remove(movement.inventoryId());
+                    deleted.add(movement.inventoryId());
+                } else if (! deleted.contains(movement.inventoryId()))
+                    quantities.merge(movement.inventoryId(), movement.delta(), Long::sum);
+                last[0] = movement.sequence();
+            });
+        }
+        return new State(last[0], quantities, deleted);
+    }
+
+    // The records after "afterSequence", in order, up to the first invalid one.
+    public void read(long afterSequence, Consumer<Movement> consumer) throws IOException {
+        for (Path path : segments())
+            read(path, afterSequence, consumer);
+    }
+
+    public Path snapshot(State state) throws IOException {
+        Path target = directory.resolve(snapshotName(state.sequence()));
+        Path tmp    = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream output = new DataOutputStream(checked);
+            output.writeLong(state.sequence());
+            output.writeInt(state.quantities().size() + state.deleted().size());
+            for (Map.Entry<Long, Long> entry : state.quantities().entrySet()) {
+                output.writeLong(entry.getKey());
+                output.writeLong(entry.getValue());
+            }
+            for (Long inventoryId : state.deleted()) {
+                output.writeLong(inventoryId);
+                output.writeLong(CST_DELETED);
+            }
+            output.flush();
+            long checksum = checked.getChecksum().getValue();
+            output.writeLong(checksum);
+            output.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Journal snapshot: sequence {}, {} inventories.", state.sequence(), state.quantities().size());
+        return target;
+    }
+
+    // Deletes the segments and the older snapshots covered by the snapshot at "sequence". Never the current segment.
+    public int compact(long sequence) throws IOException {
+        int deleted = 0;
+        lock.lock();
+        try {
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size() - 1; i++) {
+                long lastOfSegment = firstSequence(segments.get(i + 1)) - 1L;
+                if (lastOfSegment > sequence)
+                    break;
+                Files.deleteIfExists(segments.get(i));
+                deleted++;
+            }
+            for (Path path : snapshots()) {
+                if (snapshotSequence(path) < sequence)
+                    Files.deleteIfExists(path);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (deleted > 0)
+            logger.info("Journal compaction: {} segments deleted (sequence {}).", deleted, sequence);
+        return deleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                channel.close();
+                segment = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void force() {
+        segment.force();
+        unsynced = 0;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            List<Path> snapshots = snapshots();
+            nextSequence = snapshots.isEmpty() ? 1L : snapshotSequence(snapshots.get(snapshots.size() - 1)) + 1L;
+            return;
+        }
+
+        // The last segment stays the current one: the appends continue after its last valid record.
+        Path last = segments.get(segments.size() - 1);
+        map(last, firstSequence(last));
+        int count = 0;
+        while ((count < segmentCapacity) && isValid(segment, count * CST_RECORD_SIZE, segmentFirst + count))
+            count++;
+        nextSequence = segmentFirst + count;
+        logger.info("Journal recovered: {} segments, last sequence {}.", segments.size(), nextSequence - 1L);
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+        }
+        map(directory.resolve(String.format("%s%020d%s", CST_SEGMENT_PREFIX, nextSequence, CST_SEGMENT_SUFFIX)), nextSequence);
+        unsynced = 0;
+    }
+
+    private void map(Path path, long first) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), (long) segmentRecords * CST_RECORD_SIZE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segmentFirst    = first;
+        segmentCapacity = (int) (size / CST_RECORD_SIZE);
+    }
+
+    private void read(Path path, long afterSequence, Consumer<Movement> consumer) throws IOException {
+        long first = firstSequence(path);
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            CRC32 readCrc = new CRC32();
+            int records = (int) (readChannel.size() / CST_RECORD_SIZE);
+            for (int i = 0; i < records; i++) {
+                int offset = i * CST_RECORD_SIZE;
+                if (! isValid(buffer, offset, first + i, readCrc))
+                    return;
+                if (first + i > afterSequence)
+                    consumer.accept(new Movement(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                                                 buffer.getLong(offset + 24), buffer.getLong(offset + 32)));
+            }
+        }
+    }
+
+    private boolean isValid(MappedByteBuffer buffer, int offset, long sequence) {
+        return isValid(buffer, offset, sequence, crc);
+    }
+
+    private static boolean isValid(MappedByteBuffer buffer, int offset, long sequence, CRC32 crc) {
+        return (buffer.getLong(offset) == sequence) && (buffer.getInt(offset + CST_CRC_OFFSET) == checksum(buffer, offset, crc));
+    }
+
+    private int checksum(MappedByteBuffer buffer, int offset) {
+        return checksum(buffer, offset, crc);
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset, CRC32 crc) {
+        crc.reset();
+        crc.update(buffer.slice(offset, CST_CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    // Latest valid snapshot. None: empty state at sequence 0.
+    private State loadSnapshot() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)), new CRC32());
+            try (DataInputStream input = new DataInputStream(checked)) {
+                long sequence = input.readLong();
+                int count = input.readInt();
+                Map<Long, Long> quantities = new HashMap<>(Math.max(16, count * 2));
+                Set<Long> deleted = new HashSet<>();
+                for (int j = 0; j < count; j++) {
+                    long inventoryId = input.readLong();
+                    long qty = input.readLong();
+                    if (qty == CST_DELETED)
+                        deleted.add(inventoryId);
+                    else
+                        quantities.put(inventoryId, qty);
+                }
+                long expected = checked.getChecksum().getValue();
+                if (input.readLong() == expected)
+                    return new State(sequence, quantities, deleted);
+            } catch (IOException ex) {
+                logger.warn("Journal snapshot {} ignored: {}.", path.getFileName(), ex.getMessage());
+                continue;
+            }
+            logger.warn("Journal snapshot {} ignored: invalid checksum.", path.getFileName());
+        }
+        return new State(0L, Map.of());
+    }
+
+    private List<Path> segments() throws IOException {
+        return list(CST_SEGMENT_PREFIX, CST_SEGMENT_SUFFIX);
+    }
+
+    private List<Path> snapshots() {
+        try {
+            return list(CST_SNAPSHOT_PREFIX, CST_SNAPSHOT_SUFFIX);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Sorted by sequence: the names are zero-padded.
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix) &&
+                                        path.getFileName().toString().endsWith(suffix))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private static String snapshotName(long sequence) {
+        return String.format("%s%020d%s", CST_SNAPSHOT_PREFIX, sequence, CST_SNAPSHOT_SUFFIX);
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(CST_SEGMENT_PREFIX.length(), name.length() - CST_SEGMENT_SUFFIX.length()));
+    }
+
+    private static long snapshotSequence(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(CST_SNAPSHOT_PREFIX.length(), name.length() - CST_SNAPSHOT_SUFFIX.length()));
+    }
+}
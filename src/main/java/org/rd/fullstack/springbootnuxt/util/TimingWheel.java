@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/*
+ * Hashed timing wheel (Varghese & Lauck): the expirations of a large number of timeouts.
+ * - "wheelSize" buckets (power of 2) of "tick" ms. A timeout goes to the bucket of its deadline
+ *   tick, with the number of full turns before it is due (rounds).
+ * - Schedule and cancel: O(1). A tick visits one bucket only: no scan of all the timeouts.
+ * - Any thread schedules (pending queue, lock-free), one thread advances the wheel: the buckets
+ *   are only touched by that thread. A cancelled timeout is dropped when its bucket is visited.
+ * - Precision: one tick (the deadlines are rounded up).
+ * No thread: the owner calls advance() (see ReservationSrv).
+ */
+public class TimingWheel<T> {
+
+    private final long tick;
+    private final int  mask;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final ConcurrentLinkedQueue<Timeout<T>> pending;
+
+    private long currentTick; // Next tick to process (advancing thread only).
+
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean bCancelled;
+
+        private Timeout(T item, long deadline) {
+            this.item     = item;
+            this.deadline = deadline;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        // The owner must still handle the race with an expiration in progress (see ReservationSrv).
+        public void cancel() {
+            bCancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return bCancelled;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TimingWheel(long tick, int wheelSize, long start) {
+        super();
+        if (tick <= 0)
+            throw new IllegalArgumentException("Invalid tick: " + tick + ".");
+        if ((wheelSize <= 0) || (Integer.bitCount(wheelSize) != 1))
+            throw new IllegalArgumentException("Invalid wheel size (power of 2): " + wheelSize + ".");
+
+        this.tick        = tick;
+        this.mask        = wheelSize - 1;
+        this.buckets     = new ArrayDeque[wheelSize];
+        this.pending     = new ConcurrentLinkedQueue<>();
+        this.currentTick = start / tick;
+        for (int i = 0; i < wheelSize; i++)
+            buckets[i] = new ArrayDeque<>();
+    }
+
+    public Timeout<T> schedule(T item, long deadline) {
+        Timeout<T> timeout = new Timeout<>(item, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    // Processes the ticks up to "now": the due timeouts are given to "expired". Returns their count.
+    public int advance(long now, Consumer<T> expired) {
+        int count = 0;
+        long lastTick = now / tick;
+        while (currentTick <= lastTick) {
+            transferPending();
+
+            Iterator<Timeout<T>> iterator = buckets[(int) (currentTick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.isCancelled()) {
+                    iterator.remove();
+                } else if (timeout.rounds <= 0) {
+                    iterator.remove();
+                    expired.accept(timeout.item);
+                    count++;
+                } else {
+                    timeout.rounds--;
+                }
+            }
+            currentTick++;
+        }
+        return count;
+    }
+
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled())
+                continue;
+
+            // Rounded up; already due: the current bucket.
+            long deadlineTick = Math.max((timeout.deadline + tick - 1) / tick, currentTick);
+            timeout.rounds = (deadlineTick - currentTick) / buckets.length;
+            buckets[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+}
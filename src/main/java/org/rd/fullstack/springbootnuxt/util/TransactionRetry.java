@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Transactions retried on a serialization failure (SQLSTATE class 40: MVCC write conflict,
+ * deadlock victim, ...). The database has rolled back the whole transaction: it is executed again.
+ * - Always a new transaction (REQUIRES_NEW): an enclosing transaction could not be retried.
+ * - Backoff: doubled per attempt, with jitter (the conflicting transactions do not collide again).
+ * - Metrics: db.tx.retries and db.tx.aborts (attempts exhausted).
+ */
+public class TransactionRetry {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int  maxAttempts;
+    private final long backoff;
+
+    private final LongAdder retries;
+    private final LongAdder aborts;
+
+    public TransactionRetry(PlatformTransactionManager transactionManager, int maxAttempts, long backoff) {
+        super();
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("Invalid maximum attempts: " + maxAttempts + ".");
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoff     = Math.max(0L, backoff);
+        this.retries     = new LongAdder();
+        this.aborts      = new LongAdder();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getAborts() {
+        return aborts.sum();
+    }
+
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("db.tx.retries", retries, LongAdder::sum)
+                       .description("Transactions executed again after a serialization failure.")
+                       .register(meterRegistry);
+        FunctionCounter.builder("db.tx.aborts", aborts, LongAdder::sum)
+                       .description("Transactions abandoned after the maximum attempts.")
+                       .register(meterRegistry);
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (RuntimeException ex) {
+                if (! isSerializationFailure(ex))
+                    throw ex;
+                if (attempt >= maxAttempts) {
+                    aborts.increment();
+                    logger.warn("Serialization failure, transaction abandoned after {} attempts: {}.", attempt, ex.getMessage());
+                    throw ex;
+                }
+                retries.increment();
+                pause(attempt);
+            }
+        }
+    }
+
+    public static boolean isSerializationFailure(Throwable ex) {
+        if (ex instanceof ConcurrencyFailureException)
+            return true;
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if ((cause instanceof SQLException sqlEx) && (sqlEx.getSQLState() != null) && sqlEx.getSQLState().startsWith("40"))
+                return true;
+        }
+        return false;
+    }
+
+    private void pause(int attempt) {
+        if (backoff == 0)
+            return;
+
+        long delay = backoff << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the transaction retry backoff.", ex);
+        }
+    }
+}
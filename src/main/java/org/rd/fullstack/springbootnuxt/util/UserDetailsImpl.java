@@ -16,14 +16,11 @@
 package org.rd.fullstack.springbootnuxt.util;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import org.rd.fullstack.springbootnuxt.dto.User;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public class UserDetailsImpl implements UserDetails {
@@ -43,11 +40,9 @@ public class UserDetailsImpl implements UserDetails {
     }
 
     public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-            .map(role -> new SimpleGrantedAuthority(role.name()))
-            .collect(Collectors.toList());
-
-        return new UserDetailsImpl(user.getUsername(), user.getPassword(), authorities);
+        // Shared, immutable authorities list (one per role combination).
+        return new UserDetailsImpl(user.getUsername(), user.getPassword(), 
+                                   Role.authoritiesFromMask(Role.toMask(user.getRoles())));
     }
 
     @Override
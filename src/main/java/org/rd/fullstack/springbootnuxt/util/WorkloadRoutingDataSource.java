@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt.util;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/*
+ * One DataSource, one pool per workload (see Workload).
+ * - The workload of the current thread is set by the @Workload advisor, before the transaction
+ *   (highest precedence): the connection is taken from the right pool.
+ * - Nested calls: the previous workload is restored on exit.
+ * - No workload: OLTP.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Workload.Type> current = new ThreadLocal<>();
+
+    public WorkloadRoutingDataSource(DataSource oltp, DataSource reporting) {
+        super();
+        setTargetDataSources(Map.of(Workload.Type.OLTP, oltp, Workload.Type.REPORTING, reporting));
+        setDefaultTargetDataSource(oltp);
+    }
+
+    public static Workload.Type current() {
+        Workload.Type type = current.get();
+        return (type == null) ? Workload.Type.OLTP : type;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return current();
+    }
+
+    // Class or method annotation. The method wins.
+    public static Advisor advisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+            .union(new AnnotationMatchingPointcut(null, Workload.class, true));
+
+        MethodInterceptor interceptor = invocation -> {
+            Class<?> targetClass = (invocation.getThis() == null) ? null : AopUtils.getTargetClass(invocation.getThis());
+            Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+
+            Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+            if ((workload == null) && (targetClass != null))
+                workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+            if (workload == null)
+                return invocation.proceed();
+
+            Workload.Type previous = current.get();
+            current.set(workload.value());
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null)
+                    current.remove();
+                else
+                    current.set(previous);
+            }
+        };
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -15,14 +15,12 @@
 -- 
 --  DDL for the staging database.
 --  Simple database definition.
+--  Idempotent (IF NOT EXISTS): the persistent stores keep their data (see application-file.yml).
+--  The table type is the database default: MEMORY (mem:) or CACHED (file:, hsqldb.default_table_type).
 
 -- BEGIN.
 --
-DROP TABLE IF EXISTS INVENTORY;
-DROP TABLE IF EXISTS PRODUCT;
-DROP TABLE IF EXISTS PERSON;
-
-CREATE TABLE PERSON (
+CREATE TABLE IF NOT EXISTS PERSON (
     PERSON_ID  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     FIRST_NAME VARCHAR(64)    NOT NULL,
     LAST_NAME  VARCHAR(64)    NOT NULL,
@@ -30,7 +28,7 @@ CREATE TABLE PERSON (
     CONSTRAINT PERSON_FIRST_LAST_NAME_UK UNIQUE (FIRST_NAME, LAST_NAME)
 );
 
-CREATE TABLE PRODUCT (
+CREATE TABLE IF NOT EXISTS PRODUCT (
     PRODUCT_ID  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     CODE        VARCHAR(64)    NOT NULL,
     DESCRIPTION VARCHAR(128)   NOT NULL,
@@ -38,13 +36,36 @@ CREATE TABLE PRODUCT (
     CONSTRAINT PRODUCT_CODE_UK UNIQUE (CODE)
 );
 
-CREATE TABLE INVENTORY (
+CREATE TABLE IF NOT EXISTS INVENTORY (
     INVENTORY_ID INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     PRODUCT_ID   INTEGER NOT NULL,
     QTY          INTEGER NOT NULL,
+    HELD         INTEGER DEFAULT 0 NOT NULL, -- Reserved quantity (see RESERVATION).
     CONSTRAINT INVENTORY_PRODUCT_UK UNIQUE (PRODUCT_ID),
     CONSTRAINT INVENTORY_PRODUCT_FK FOREIGN KEY (PRODUCT_ID)
-        REFERENCES PRODUCT (PRODUCT_ID)
+        REFERENCES PRODUCT (PRODUCT_ID),
+    CONSTRAINT INVENTORY_HELD_CK CHECK (HELD >= 0 AND QTY >= HELD)
+);
+
+-- Stores created before the reservations: the column only (the guards keep QTY >= HELD).
+ALTER TABLE INVENTORY ADD COLUMN IF NOT EXISTS HELD INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS LOW_STOCK_THRESHOLD (
+    PRODUCT_ID INTEGER NOT NULL PRIMARY KEY,
+    THRESHOLD  INTEGER NOT NULL,
+    CONSTRAINT LOW_STOCK_THRESHOLD_PRODUCT_FK FOREIGN KEY (PRODUCT_ID)
+        REFERENCES PRODUCT (PRODUCT_ID) ON DELETE CASCADE
 );
+
+CREATE TABLE IF NOT EXISTS RESERVATION (
+    RESERVATION_ID VARCHAR(36) NOT NULL PRIMARY KEY,
+    INVENTORY_ID   INTEGER     NOT NULL,
+    QTY            INTEGER     NOT NULL,
+    EXPIRES_AT     BIGINT      NOT NULL, -- Epoch ms.
+    CONSTRAINT RESERVATION_INVENTORY_FK FOREIGN KEY (INVENTORY_ID)
+        REFERENCES INVENTORY (INVENTORY_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS RESERVATION_EXPIRES_AT_IX ON RESERVATION (EXPIRES_AT);
 --
 -- END.
\ No newline at end of file
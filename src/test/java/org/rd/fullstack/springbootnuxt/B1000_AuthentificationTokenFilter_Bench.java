@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rd.fullstack.springbootnuxt.dto.User;
+import org.rd.fullstack.springbootnuxt.util.AuthentificationTokenFilter;
+import org.rd.fullstack.springbootnuxt.util.JwtUtils;
+import org.rd.fullstack.springbootnuxt.util.Role;
+import org.rd.fullstack.springbootnuxt.util.UserDetailsImpl;
+import org.rd.fullstack.springbootnuxt.util.UserDetailsServiceImpl;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class B1000_AuthentificationTokenFilter_Bench {
+
+    private static final String CST_SECRET      = "the.beautiful.secret.key.to.change";
+    private static final String CST_AUTHORITIES = "rd.roles";
+    private static final String CST_API_URI     = "/api/inventories/view";
+    private static final String CST_APP_URI     = "/app/index.html";
+
+    private AuthentificationTokenFilter filter;
+    private String validToken;
+    private String invalidToken;
+
+    public B1000_AuthentificationTokenFilter_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() {
+        // No logging during the measures (the invalid token path logs errors).
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+        JwtUtils jwtUtils = new JwtUtils(CST_SECRET, 3600000, CST_AUTHORITIES);
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "jwtUtils", jwtUtils);
+        filter = new AuthentificationTokenFilter(jwtUtils, userDetailsService);
+
+        UserDetailsImpl user = UserDetailsImpl.build(new User("root", null,
+            Arrays.asList(Role.ROLE_SELECT, Role.ROLE_INSERT, Role.ROLE_UPDATE, Role.ROLE_DELETE)));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        // Valid token and a well-formed token signed with another key (invalid signature).
+        validToken   = jwtUtils.generateJwtToken(authentication);
+        invalidToken = new JwtUtils(CST_SECRET + ".but.not.the.same.one", 3600000, CST_AUTHORITIES)
+                           .generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public Object publicPath() throws Exception {
+        return filter(CST_APP_URI, null);
+    }
+
+    @Benchmark
+    public Object anonymous() throws Exception {
+        return filter(CST_API_URI, null);
+    }
+
+    @Benchmark
+    public Object validToken() throws Exception {
+        return filter(CST_API_URI, "Bearer " + validToken);
+    }
+
+    @Benchmark
+    public Object invalidToken() throws Exception {
+        return filter(CST_API_URI, "Bearer " + invalidToken);
+    }
+
+    private Object filter(String uri, String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (authorization != null)
+            request.addHeader("Authorization", authorization);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1000_AuthentificationTokenFilter_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rd.fullstack.springbootnuxt.dto.User;
+import org.rd.fullstack.springbootnuxt.util.JwtKeyRing;
+import org.rd.fullstack.springbootnuxt.util.JwtUtils;
+import org.rd.fullstack.springbootnuxt.util.Role;
+import org.rd.fullstack.springbootnuxt.util.UserDetailsImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1100
+ * Sign and verify throughput: HS256 (shared secret) VS EdDSA (Ed25519) VS ES256 (P-256).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class B1100_JwtUtils_Bench {
+
+    private static final String CST_SECRET      = "the.beautiful.secret.key.to.change";
+    private static final String CST_AUTHORITIES = "rd.roles";
+    private static final int    CST_EXPIRATION  = 3600000;
+
+    @Param({ "HS256", JwtKeyRing.CST_EDDSA, JwtKeyRing.CST_ES256 })
+    private String signature;
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    public B1100_JwtUtils_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() {
+        jwtUtils = "HS256".equals(signature)
+            ? new JwtUtils(CST_SECRET, CST_EXPIRATION, CST_AUTHORITIES)
+            : new JwtUtils(CST_SECRET, CST_EXPIRATION, CST_AUTHORITIES,
+                           new JwtKeyRing(signature, CST_EXPIRATION, CST_EXPIRATION));
+
+        UserDetailsImpl user = UserDetailsImpl.build(new User("root", null,
+            Arrays.asList(Role.ROLE_SELECT, Role.ROLE_INSERT, Role.ROLE_UPDATE, Role.ROLE_DELETE)));
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1100_JwtUtils_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rd.fullstack.springbootnuxt.config.WebConfig;
+import org.rd.fullstack.springbootnuxt.dto.InventoryView;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1200
+ * InventoryView list: encode and decode time, JSON VS CBOR VS Smile (same mapper settings as the REST API).
+ * The payload size of each format is printed at the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class B1200_InventoryViewCodecs_Bench {
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private JavaType listType;
+    private List<InventoryView> inventoriesView;
+    private byte[] payload;
+
+    public B1200_InventoryViewCodecs_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "cbor"  -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default      -> new JsonFactory();
+        };
+        objectMapper = WebConfig.binaryMapper(factory);
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, InventoryView.class);
+
+        // Synthetic views: realistic codes and descriptions.
+        inventoriesView = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++)
+            inventoriesView.add(new InventoryView(id, id, id % 1000, "Code-" + id, "Description of the product " + id + "."));
+
+        payload = objectMapper.writeValueAsBytes(inventoriesView);
+        System.out.printf("%n%s, %d views: %d bytes (%.1f bytes/view).%n",
+                          format, size, payload.length, (double) payload.length / size);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(inventoriesView);
+    }
+
+    @Benchmark
+    public List<InventoryView> deserialize() throws Exception {
+        return objectMapper.readValue(payload, listType);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1200_InventoryViewCodecs_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1300
+ * Concurrency scaling: a burst of blocking requests (slow database stand-in: a sleep),
+ * platform threads (Tomcat default: 200 threads) VS virtual threads (spring.threads.virtual.enabled).
+ * - Each request holds a JDBC connection for "latency": a fair semaphore of "poolSize" permits,
+ *   the HikariCP cap (oltp maximum-pool-size: 10). Without a connection, the request waits.
+ * - The score is the time to serve the whole burst. With the pool cap, both modes take about
+ *   (requests / poolSize) * latency: the pool is the bottleneck long before the Tomcat threads,
+ *   the virtual threads only save the parked threads. "poolSize" = "requests": no cap, the
+ *   platform pool grows by steps of "latency" for each 200 requests, the virtual threads not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class B1300_VirtualThreads_Bench {
+
+    private static final int CST_TOMCAT_MAX_THREADS = 200;
+
+    @Param({ "platform", "virtual" })
+    private String mode;
+
+    @Param({ "200", "1000", "5000" })
+    private int requests;
+
+    @Param({ "20" })
+    private long latency; // ms, per request (JDBC round trip).
+
+    @Param({ "10", "5000" })
+    private int poolSize; // JDBC connections (HikariCP maximum-pool-size).
+
+    private ExecutorService executor;
+    private Semaphore connections;
+
+    public B1300_VirtualThreads_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() {
+        executor = "virtual".equals(mode)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(CST_TOMCAT_MAX_THREADS);
+        connections = new Semaphore(poolSize, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long burst() throws Exception {
+        List<Future<Long>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++)
+            responses.add(executor.submit(this::request));
+
+        long total = 0;
+        for (Future<Long> response : responses)
+            total += response.get();
+        return total;
+    }
+
+    // Blocking call: the thread waits for a connection, then for the database. It does not compute.
+    private long request() throws InterruptedException {
+        connections.acquire();
+        try {
+            Thread.sleep(latency);
+        } finally {
+            connections.release();
+        }
+        return latency;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1300_VirtualThreads_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
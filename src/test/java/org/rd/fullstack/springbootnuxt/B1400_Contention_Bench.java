@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rd.fullstack.springbootnuxt.util.TransactionRetry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1400
+ * Contention by HSQLDB transaction control (LOCKS, MVLOCKS, MVCC), one database per trial:
+ * - 6 threads: debit/credit transactions (two rows, random order), retried on a serialization
+ *   failure (TransactionRetry). Hot: 4 rows. Uniform: all the rows.
+ * - 2 threads: full inventory view (INVENTORY join PRODUCT).
+ * The scores are per method (throughput), the counters are rates: "retries" (serialization
+ * failures retried) and "aborts" (attempts exhausted).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class B1400_Contention_Bench {
+
+    private static final int CST_ROWS     = 1000;
+    private static final int CST_HOT_ROWS = 4;
+
+    private static final String CST_UPDATE = "UPDATE INVENTORY SET QTY = QTY + ? WHERE INVENTORY_ID = ?";
+    private static final String CST_VIEW   = """
+              SELECT inv.INVENTORY_ID, inv.PRODUCT_ID, inv.QTY, prd.CODE, prd.DESCRIPTION
+                FROM INVENTORY inv
+          INNER JOIN PRODUCT prd ON inv.PRODUCT_ID = prd.PRODUCT_ID
+          """;
+
+    @Param({ "LOCKS", "MVLOCKS", "MVCC" })
+    private String transactionControl;
+
+    @Param({ "hot", "uniform" })
+    private String distribution;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionRetry transactionRetry;
+    private long[] ids;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long retries;
+        public long aborts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retries = 0;
+            aborts  = 0;
+        }
+    }
+
+    public B1400_Contention_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:hsqldb:mem:contention-" + transactionControl + "-" + distribution);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET DATABASE TRANSACTION CONTROL " + transactionControl);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        List<Object[]> products = new ArrayList<>(CST_ROWS);
+        for (int i = 1; i <= CST_ROWS; i++)
+            products.add(new Object[] { "Code-" + i, "Product " + i, 9.99 });
+        jdbcTemplate.batchUpdate("INSERT INTO PRODUCT (CODE, DESCRIPTION, PRICE) VALUES (?, ?, ?)", products);
+        jdbcTemplate.update("INSERT INTO INVENTORY (PRODUCT_ID, QTY) SELECT PRODUCT_ID, 1000000 FROM PRODUCT");
+        ids = jdbcTemplate.queryForList("SELECT INVENTORY_ID FROM INVENTORY ORDER BY INVENTORY_ID", Long.class)
+                          .stream().mapToLong(Long::longValue).toArray();
+
+        transactionRetry = new TransactionRetry(new DataSourceTransactionManager(dataSource), 5, 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public int debitCredit(Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int bound = "hot".equals(distribution) ? CST_HOT_ROWS : ids.length;
+        long from = ids[random.nextInt(bound)];
+        long to   = ids[random.nextInt(bound)];
+        long qty  = 1 + random.nextInt(10);
+
+        int[] attempts = { 0 };
+        try {
+            return transactionRetry.execute(status -> {
+                attempts[0]++;
+                return jdbcTemplate.update(CST_UPDATE, -qty, from) + jdbcTemplate.update(CST_UPDATE, qty, to);
+            });
+        } catch (RuntimeException ex) {
+            if (! TransactionRetry.isSerializationFailure(ex))
+                throw ex;
+            outcomes.aborts++;
+            return 0;
+        } finally {
+            outcomes.retries += attempts[0] - 1;
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int fullView() {
+        return jdbcTemplate.queryForList(CST_VIEW).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1400_Contention_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
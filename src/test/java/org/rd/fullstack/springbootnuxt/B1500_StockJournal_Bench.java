@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rd.fullstack.springbootnuxt.util.StockJournal;
+
+/*
+ * JMH benchmarks - Not executed by surefire (see POM.XML file).
+ * - mvn -Pbench test -Djmh.include=B1500
+ * Stock journal append throughput by sync policy: OS (page cache only), GROUP (one force
+ * per 256 appends) and ALWAYS (one force per append: bound by the device flush latency).
+ * 4 threads: the appends are serialized by the journal lock. 64 MB segments (the rolling is included).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class B1500_StockJournal_Bench {
+
+    @Param({ "OS", "GROUP", "ALWAYS" })
+    private StockJournal.Sync sync;
+
+    private Path directory;
+    private StockJournal journal;
+
+    public B1500_StockJournal_Bench() {
+        super();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-bench");
+        journal   = new StockJournal(directory, 64L * 1024 * 1024, sync, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList())
+                Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return journal.append(random.nextLong(1, 100_000), random.nextLong(-10, 11), random.nextLong(0, 1_000));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(B1500_StockJournal_Bench.class.getSimpleName())
+            .build()).run();
+    }
+}
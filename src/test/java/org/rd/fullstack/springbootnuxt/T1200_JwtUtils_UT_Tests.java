@@ -15,8 +15,14 @@
  */
 package org.rd.fullstack.springbootnuxt;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -24,12 +30,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
 import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dto.User;
+import org.rd.fullstack.springbootnuxt.util.JwtKeyRing;
 import org.rd.fullstack.springbootnuxt.util.JwtUtils;
+import org.rd.fullstack.springbootnuxt.util.Role;
+import org.rd.fullstack.springbootnuxt.util.UserDetailsImpl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 /*
@@ -71,4 +82,59 @@ public class T1200_JwtUtils_UT_Tests {
         assertTrue(jwtUtils.getUserNameFromJwtToken(jetonJWT).compareTo("root") == 0);
         logger.info("The username is valid.");
     }
+
+    @Test
+    @Order(3)
+    public void jwtUtils_getAuthoritiesFromLegacyJwtToken() throws Exception {
+        // Legacy format: comma separated role names.
+        List<Role> roles = jwtUtils.getAuthoritiesFromJwtToken(jetonJWT);
+        assertEquals(Arrays.asList(Role.ROLE_SELECT, Role.ROLE_INSERT, Role.ROLE_UPDATE, Role.ROLE_DELETE), roles);
+        logger.info("The legacy authorities are valid: {}.", roles);
+    }
+
+    @Test
+    @Order(4)
+    public void jwtUtils_getAuthoritiesFromCompactJwtToken() throws Exception {
+        // Compact format: bitmask.
+        UserDetailsImpl userDetails = UserDetailsImpl.build(
+            new User("support", null, Arrays.asList(Role.ROLE_SELECT, Role.ROLE_UPDATE)));
+        String token = jwtUtils.generateJwtToken(
+            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        assertTrue(jwtUtils.validateJwtToken(token),"The token is invalid.");
+        assertTrue(token.length() < jetonJWT.length(),"The compact token should be smaller.");
+
+        List<Role> roles = jwtUtils.getAuthoritiesFromJwtToken(token);
+        assertEquals(Arrays.asList(Role.ROLE_SELECT, Role.ROLE_UPDATE), roles);
+        assertSame(roles, jwtUtils.getAuthoritiesFromJwtToken(token)); // Cached per mask value.
+        logger.info("The compact authorities are valid: {}.", roles);
+    }
+
+    @Test
+    @Order(5)
+    public void jwtUtils_asymmetricSignature() throws Exception {
+        UserDetailsImpl userDetails = UserDetailsImpl.build(
+            new User("guest", null, Arrays.asList(Role.ROLE_SELECT)));
+
+        for (String algorithm : Arrays.asList(JwtKeyRing.CST_EDDSA, JwtKeyRing.CST_ES256)) {
+            JwtKeyRing keyRing = new JwtKeyRing(algorithm, 3600000L, 3600000L);
+            JwtUtils asymJwtUtils = new JwtUtils("the.beautiful.secret.key.to.change", 3600000, "rd.roles", keyRing);
+
+            String token = asymJwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            assertTrue(asymJwtUtils.validateJwtToken(token),"The token is invalid.");
+            assertTrue(! asymJwtUtils.validateJwtToken(jetonJWT),"The HS256 token must be refused with the key ring.");
+            assertTrue(new JwtUtils("the.beautiful.secret.key.to.change", 3600000, "rd.roles", keyRing, true)
+                           .validateJwtToken(jetonJWT),"The HS256 token is invalid (migration window).");
+            assertTrue(! jwtUtils.validateJwtToken(token),"The token must not validate without the key ring.");
+
+            // Rotation: the tokens signed with the retired key remain valid.
+            keyRing.rotate();
+            assertTrue(asymJwtUtils.validateJwtToken(token),"The token (retired key) is invalid.");
+
+            List<?> keys = (List<?>) asymJwtUtils.getJwkSet().get("keys");
+            assertEquals(3, keys.size()); // Retired, current and next keys.
+            logger.info("The {} JWK set is valid: {}.", algorithm, keys.stream().map(key -> ((Map<?, ?>) key).get("kid")).toList());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.util.LocalReplicaSync;
+import org.rd.fullstack.springbootnuxt.util.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Two local replicas, copied on demand only (the test controls the replication lag).
+@SpringBootTest(classes = Application.class, properties = {
+    "org.rd.fullstack.springbootnuxt.datasource.local-replicas=2",
+    "org.rd.fullstack.springbootnuxt.datasource.local-replicas-sync=3600000" })
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Read replicas routing tests.")
+public class T1300_ReadReplicas_UT_Tests {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(T1300_ReadReplicas_UT_Tests.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LocalReplicaSync localReplicaSync;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("reportingDataSource")
+    private DataSource reportingDataSource;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Test
+    @Order(1)
+    public void readOnlyOnReplicas() {
+        // Written on the primary, read (read-only transaction) on a replica: visible after the copy only.
+        productRepository.saveAndFlush(new Product("Replica-01", "Replica test", BigDecimal.ONE));
+        assertTrue(productRepository.findByCodeContaining("Replica-01").isEmpty());
+
+        long rows = localReplicaSync.sync();
+        logger.info("Local replicas sync: {} rows.", rows);
+
+        // Round robin: both replicas have the copy.
+        assertEquals(1, productRepository.findByCodeContaining("Replica-01").size());
+        assertEquals(1, productRepository.findByCodeContaining("Replica-01").size());
+    }
+
+    @Test
+    @Order(2)
+    public void fallbackToPrimary() {
+        productRepository.saveAndFlush(new Product("Replica-02", "Replica test", BigDecimal.ONE));
+
+        // Both replicas down: the reads go to the primary (no lag).
+        localReplicaSync.dataSources().values().forEach(dataSource -> ((HikariDataSource) dataSource).close());
+        assertEquals(1, productRepository.findByCodeContaining("Replica-02").size());
+
+        assertFalse(replicaDataSource.isUp("replica-1"));
+        assertFalse(replicaDataSource.isUp("replica-2"));
+        assertEquals(0, meterRegistry.get("db.replica.up").tag("replica", "replica-1").gauge().value());
+    }
+
+    @Test
+    @Order(3)
+    public void syncedAtStart() {
+        // A new replica (the previous ones are closed): filled by start(), not one interval later.
+        LocalReplicaSync sync = new LocalReplicaSync(reportingDataSource, 1,
+                                                     resourceLoader.getResource("classpath:schema.sql"), 3600000);
+        try {
+            sync.start();
+            String sql = "SELECT COUNT(*) FROM PRODUCT";
+            long primary = new JdbcTemplate(reportingDataSource).queryForObject(sql, Long.class);
+            long replica = new JdbcTemplate(sync.dataSources().get("replica-1")).queryForObject(sql, Long.class);
+            assertTrue(primary >= 2);
+            assertEquals(primary, replica);
+        } finally {
+            sync.close();
+        }
+    }
+}
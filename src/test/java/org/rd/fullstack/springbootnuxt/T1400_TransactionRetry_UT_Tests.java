@@ -0,0 +1,178 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.srv.InventoryQtySrv;
+import org.rd.fullstack.springbootnuxt.util.TransactionRetry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(classes = Application.class)
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MVCC transaction control and serialization failure retry tests.")
+public class T1400_TransactionRetry_UT_Tests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryQtySrv inventoryQtySrv;
+
+    @Autowired
+    private TransactionRetry transactionRetry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @Order(1)
+    public void transactionControl() {
+        assertEquals("MVCC", jdbcTemplate.queryForObject("VALUES TRANSACTION_CONTROL()", String.class));
+    }
+
+    @Test
+    @Order(2)
+    public void retryOnSerializationFailure() {
+        long retries = transactionRetry.getRetries();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = transactionRetry.execute(status -> {
+            if (attempts.incrementAndGet() < 3)
+                throw new CannotAcquireLockException("transaction rollback: serialization failure");
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(retries + 2, transactionRetry.getRetries());
+    }
+
+    @Test
+    @Order(3)
+    public void abortAfterMaxAttempts() {
+        long aborts = transactionRetry.getAborts();
+        assertThrows(CannotAcquireLockException.class, () -> transactionRetry.execute(status -> {
+            throw new CannotAcquireLockException("transaction rollback: serialization failure");
+        }));
+        assertEquals(aborts + 1, transactionRetry.getAborts());
+
+        // Not a serialization failure: not retried.
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(DataIntegrityViolationException.class, () -> transactionRetry.execute(status -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("integrity constraint violation");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @Order(4)
+    public void hotRowUpdates() throws Exception {
+        Inventory inventory = inventory("Test-1400-A", 100L); // Own row: the other test classes can empty the table.
+        long initial = inventory.getQty();
+
+        // Hot row: 8 threads, 25 debits (+2) and 25 credits (-1) each. No lost update.
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 25; j++) {
+                        inventoryQtySrv.debitQTY(inventory.getInventoryId(), 2L);
+                        inventoryQtySrv.creditQTY(inventory.getInventoryId(), 1L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(initial + 200L, inventoryRepository.findById(inventory.getInventoryId()).orElseThrow().getQty());
+
+        InventoryChange change = inventoryQtySrv.debitQTY(inventory.getInventoryId(), 5L).orElseThrow();
+        assertEquals(initial + 205L, change.qty());
+        assertEquals(initial + 200L, change.previousQty());
+        assertTrue(inventoryQtySrv.debitQTY(Integer.MAX_VALUE, 5L).isEmpty());
+    }
+
+    @Test
+    @Order(5)
+    public void concurrentWithdrawals() throws Exception {
+        Inventory inventory = inventory("Test-1400-B", 100L);
+        long initial = inventory.getQty();
+
+        // 8 threads, 2 * initial withdrawals of 1 in total: exactly "initial" succeed, never negative.
+        AtomicInteger withdrawn = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < initial / 4; j++)
+                        inventoryQtySrv.withdrawQTY(inventory.getInventoryId(), 1L).ifPresent(adjustment -> {
+                            assertTrue(adjustment.qty() >= 0);
+                            withdrawn.incrementAndGet();
+                        });
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(initial, withdrawn.get());
+        assertEquals(0L, inventoryRepository.findById(inventory.getInventoryId()).orElseThrow().getQty());
+    }
+
+    private Inventory inventory(String code, long qty) {
+        Product product = productRepository.saveAndFlush(new Product(code, "Transaction retry test", BigDecimal.ONE));
+        return inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), qty));
+    }
+}
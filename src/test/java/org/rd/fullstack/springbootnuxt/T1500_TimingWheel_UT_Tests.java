@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.util.TimingWheel;
+
+// No Spring context: the wheel is advanced with a simulated clock.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Hashed timing wheel tests.")
+public class T1500_TimingWheel_UT_Tests {
+
+    @Test
+    @Order(1)
+    public void expiryOrderAndRounds() {
+        // 8 buckets of 10 ms: one turn is 80 ms, the 250 ms deadline needs 3 rounds.
+        TimingWheel<String> wheel = new TimingWheel<>(10L, 8, 0L);
+        wheel.schedule("250", 250L);
+        wheel.schedule("35", 35L);
+        wheel.schedule("90", 90L);
+
+        List<String> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(30L, expired::add));
+        assertEquals(1, wheel.advance(40L, expired::add));
+        assertEquals(1, wheel.advance(240L, expired::add));
+        assertEquals(List.of("35", "90"), expired);
+
+        assertEquals(1, wheel.advance(250L, expired::add));
+        assertEquals(List.of("35", "90", "250"), expired);
+    }
+
+    @Test
+    @Order(2)
+    public void cancelAndOverdue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10L, 16, 1000L);
+        List<TimingWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            timeouts.add(wheel.schedule(i, 1000L + (i % 5000)));
+        for (int i = 0; i < timeouts.size(); i += 2)
+            timeouts.get(i).cancel();
+
+        // Already due when scheduled: expired at the next tick.
+        wheel.schedule(-1, 0L);
+
+        List<Integer> expired = new ArrayList<>();
+        assertEquals(50_001, wheel.advance(7000L, expired::add));
+        assertTrue(expired.stream().allMatch(item -> (item < 0) || (item % 2 == 1)));
+        assertEquals(0, wheel.advance(20000L, expired::add));
+    }
+}
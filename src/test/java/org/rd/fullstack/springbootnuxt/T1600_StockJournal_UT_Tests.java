@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import org.rd.fullstack.springbootnuxt.util.StockJournal;
+
+// No Spring context: the journal files are in a temporary directory.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Stock movements journal tests.")
+public class T1600_StockJournal_UT_Tests {
+
+    // 4 records per segment: the rolling and the compaction are exercised.
+    private static final long CST_SEGMENT_SIZE = 4L * StockJournal.CST_RECORD_SIZE;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @Order(1)
+    public void appendReplayAndRecover() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.GROUP, 2)) {
+            assertTrue(journal.isEmpty());
+            journal.append(1L, 100L, 100L);
+            journal.append(2L, 50L, 50L);
+            journal.append(1L, -30L, 70L);
+            journal.append(3L, 10L, 10L);
+            journal.append(2L, -50L, StockJournal.CST_DELETED);
+            journal.append(1L, 5L, 75L);
+            journal.sync();
+            assertEquals(6L, journal.lastSequence());
+        }
+        assertEquals(2, segments().size());
+
+        // Reopened: the sequence goes on in the last segment.
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.ALWAYS, 1)) {
+            assertFalse(journal.isEmpty());
+            assertEquals(7L, journal.append(3L, -1L, 9L));
+
+            StockJournal.State state = journal.replay();
+            assertEquals(7L, state.sequence());
+            assertEquals(Map.of(1L, 75L, 3L, 9L), state.quantities());
+
+            List<StockJournal.Movement> movements = new ArrayList<>();
+            journal.read(5L, movements::add);
+            assertEquals(List.of(6L, 7L), movements.stream().map(StockJournal.Movement::sequence).toList());
+            assertEquals(-1L, movements.get(1).delta());
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void snapshotAndCompaction() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.OS, 1)) {
+            journal.snapshot(new StockJournal.State(0L, Map.of(1L, 10L, 2L, 20L))); // Baseline.
+            for (long i = 1; i <= 10; i++)
+                journal.append(1L, 1L, 10L + i);
+
+            StockJournal.State state = journal.replay();
+            assertEquals(Map.of(1L, 20L, 2L, 20L), state.quantities());
+            assertEquals(3, segments().size());
+
+            // The snapshot at 10 covers the first two segments (1-4, 5-8), not the current one (9-).
+            journal.snapshot(state);
+            assertEquals(2, journal.compact(state.sequence()));
+            assertEquals(1, segments().size());
+
+            journal.append(2L, -5L, 15L);
+            assertEquals(Map.of(1L, 20L, 2L, 15L), journal.replay().quantities());
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void tornRecord() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.ALWAYS, 1)) {
+            journal.append(1L, 1L, 1L);
+            journal.append(1L, 1L, 2L);
+            journal.append(1L, 1L, 3L);
+        }
+
+        // The last record is damaged (partial write): ignored, and overwritten by the next append.
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(2L * StockJournal.CST_RECORD_SIZE + 20L);
+            file.writeByte(0x7F);
+        }
+
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.ALWAYS, 1)) {
+            assertEquals(2L, journal.lastSequence());
+            assertEquals(Map.of(1L, 2L), journal.replay().quantities());
+            assertEquals(3L, journal.append(1L, 5L, 7L));
+            assertEquals(Map.of(1L, 7L), journal.replay().quantities());
+        }
+    }
+
+    @Test
+    @Order(4)
+    public void outOfOrderAppends() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.OS, 1)) {
+            journal.snapshot(new StockJournal.State(0L, Map.of(1L, 100L, 2L, 10L)));
+
+            // Two commits on inventory 1 (100 -> 90 -> 95), appended in the reverse order: the deltas are summed.
+            journal.append(1L, 5L, 95L);
+            journal.append(1L, -10L, 90L);
+
+            // A late movement of a deleted inventory does not bring it back.
+            journal.append(2L, -10L, StockJournal.CST_DELETED);
+            journal.append(2L, 3L, 13L);
+            assertEquals(Map.of(1L, 95L), journal.replay().quantities());
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void tombstoneInSnapshot() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.OS, 1)) {
+            journal.snapshot(new StockJournal.State(0L, Map.of(1L, 10L, 2L, 20L)));
+            journal.append(2L, -20L, StockJournal.CST_DELETED);
+
+            // Snapshot and compaction: the deletion record is gone, its tombstone is in the snapshot.
+            StockJournal.State state = journal.replay();
+            journal.snapshot(state);
+            journal.compact(state.sequence());
+        }
+
+        try (StockJournal journal = new StockJournal(directory, CST_SEGMENT_SIZE, StockJournal.Sync.OS, 1)) {
+            journal.append(2L, 3L, 23L); // Late movement of the deleted inventory.
+            StockJournal.State state = journal.replay();
+            assertEquals(Map.of(1L, 10L), state.quantities());
+            assertEquals(Set.of(2L), state.deleted());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
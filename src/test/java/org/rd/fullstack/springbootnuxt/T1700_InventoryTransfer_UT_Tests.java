@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.InventoryChange;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.dto.TransferLeg;
+import org.rd.fullstack.springbootnuxt.srv.InventoryQtySrv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(classes = Application.class)
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Multi-leg stock transfer tests.")
+public class T1700_InventoryTransfer_UT_Tests {
+    private static final Logger logger = 
+        LoggerFactory.getLogger(T1700_InventoryTransfer_UT_Tests.class);
+
+    private static final int  CST_INVENTORIES = 10;
+    private static final long CST_QTY         = 100L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryQtySrv inventoryQtySrv;
+
+    private static final List<Long> ids = new ArrayList<>();
+
+    @Test
+    @Order(1)
+    public void allOrNothing() {
+        for (int i = 0; i < CST_INVENTORIES; i++) {
+            Product product = productRepository.saveAndFlush(new Product("Transfer-" + i, "Transfer test", BigDecimal.ONE));
+            ids.add(inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), CST_QTY)).getInventoryId());
+        }
+
+        // Net quantities: 0 -> 1 (150) is covered by 2 -> 0 (80).
+        List<InventoryChange> changes = inventoryQtySrv.transfer(List.of(
+            new TransferLeg(ids.get(2), ids.get(0), 80L),
+            new TransferLeg(ids.get(0), ids.get(1), 150L))).orElseThrow();
+        assertEquals(3, changes.size());
+        assertEquals(30L, qty(0));
+        assertEquals(250L, qty(1));
+        assertEquals(20L, qty(2));
+
+        // One leg refused (insufficient stock, unknown inventory): nothing applied.
+        assertTrue(inventoryQtySrv.transfer(List.of(
+            new TransferLeg(ids.get(1), ids.get(3), 10L),
+            new TransferLeg(ids.get(2), ids.get(4), 21L))).isEmpty());
+        assertTrue(inventoryQtySrv.transfer(List.of(new TransferLeg(ids.get(1), (long) Integer.MAX_VALUE, 1L))).isEmpty());
+        assertEquals(250L, qty(1));
+        assertEquals(CST_QTY, qty(3));
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryQtySrv.transfer(List.of()));
+        assertThrows(IllegalArgumentException.class, () ->
+            inventoryQtySrv.transfer(List.of(new TransferLeg(ids.get(1), ids.get(1), 1L))));
+        assertThrows(IllegalArgumentException.class, () ->
+            inventoryQtySrv.transfer(List.of(new TransferLeg(ids.get(1), ids.get(2), 0L))));
+    }
+
+    @Test
+    @Order(2)
+    public void conservationStress() throws Exception {
+        long total = total();
+
+        // 16 threads, random transfers of 1 to 4 legs between the same 10 rows, in random order.
+        AtomicInteger applied  = new AtomicInteger();
+        AtomicInteger refused  = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < 100; j++) {
+                        List<TransferLeg> legs = new ArrayList<>();
+                        for (int k = random.nextInt(1, 5); k > 0; k--) {
+                            int from = random.nextInt(CST_INVENTORIES);
+                            int to   = (from + random.nextInt(1, CST_INVENTORIES)) % CST_INVENTORIES;
+                            legs.add(new TransferLeg(ids.get(from), ids.get(to), random.nextLong(1, 40)));
+                        }
+                        if (inventoryQtySrv.transfer(legs).isPresent())
+                            applied.incrementAndGet();
+                        else
+                            refused.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        logger.info("Transfers: {} applied, {} refused (insufficient stock).", applied.get(), refused.get());
+        assertEquals(1600, applied.get() + refused.get());
+        assertTrue(applied.get() > 0);
+        assertEquals(total, total());
+        for (int i = 0; i < CST_INVENTORIES; i++)
+            assertTrue(qty(i) >= 0);
+    }
+
+    private long qty(int index) {
+        return inventoryRepository.findById(ids.get(index)).orElseThrow().getQty();
+    }
+
+    private long total() {
+        long total = 0L;
+        for (int i = 0; i < CST_INVENTORIES; i++)
+            total += qty(i);
+        return total;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.util.SortedLongIndex;
+
+// No Spring context: the index is compared with a TreeSet.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Sorted primitive long index tests.")
+public class T1800_SortedLongIndex_UT_Tests {
+
+    @Test
+    @Order(1)
+    public void addRemoveAndRange() {
+        SortedLongIndex index = new SortedLongIndex();
+        assertTrue(index.add(30L));
+        assertTrue(index.add(-5L));
+        assertTrue(index.add(10L));
+        assertFalse(index.add(10L));
+        assertEquals(3, index.size());
+
+        assertEquals(List.of(-5L, 10L, 30L), range(index, Long.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(List.of(10L, 30L), range(index, 0L, Integer.MAX_VALUE));
+        assertEquals(List.of(10L), range(index, 10L, 1));
+
+        assertTrue(index.remove(10L));
+        assertFalse(index.remove(10L));
+        assertFalse(index.contains(10L));
+        assertEquals(List.of(-5L, 30L), range(index, Long.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @Order(2)
+    public void randomAgainstTreeSet() {
+        // Enough values to split (and empty) many blocks.
+        SortedLongIndex index = new SortedLongIndex();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42L);
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(50_000) - 25_000L;
+            if (random.nextInt(3) == 0)
+                assertEquals(expected.remove(value), index.remove(value));
+            else
+                assertEquals(expected.add(value), index.add(value));
+        }
+
+        assertEquals(expected.size(), index.size());
+        assertEquals(new ArrayList<>(expected), range(index, Long.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(new ArrayList<>(expected.tailSet(1234L)).subList(0, 100), range(index, 1234L, 100));
+    }
+
+    private static List<Long> range(SortedLongIndex index, long from, int limit) {
+        List<Long> values = new ArrayList<>();
+        index.range(from, value -> {
+            values.add(value);
+            return values.size() < limit;
+        });
+        return values;
+    }
+}
@@ -20,24 +20,33 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.LookupResult;
 import org.rd.fullstack.springbootnuxt.dto.Product;
 import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
+import jakarta.persistence.EntityManagerFactory;
+
 /*
  * See POM.XML file
  * - Plugins section: maven-surefire-plugin
@@ -51,6 +60,12 @@ public class T8200_ProductController_UT_Tests extends AbstractMVC {
 
     private final String CST_URI_PRODUCTS = "/api/products";
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     public T8200_ProductController_UT_Tests() {
         super();
         mvcInstance = null;
@@ -104,4 +119,51 @@ public class T8200_ProductController_UT_Tests extends AbstractMVC {
         List<Product> Products = JsonMapper.readFromJson(content, new TypeReference<>() {});
         Products.forEach(Product -> logger.info("The get response message : {}.", Product.toString()));
     }
+
+    @Test
+    @Order(3)
+    public void lookupProducts() throws Exception {
+        List<Long> ids = Stream.of("Code-L1", "Code-L2", "Code-L3")
+                               .map(code -> productRepository.saveAndFlush(new Product(code, code, BigDecimal.ONE)).getProductId())
+                               .toList();
+        long unknownId = ids.get(2) + 1000;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Requested order, duplicates removed, unknown id reported. Test chunk size: 2 ids, so 2 queries.
+        LookupResult<Product> result = lookup(MockMvcRequestBuilders.get(CST_URI_PRODUCTS)
+            .param("ids", ids.get(2) + "," + unknownId + "," + ids.get(0) + "," + ids.get(2) + "," + ids.get(1)));
+
+        assertEquals(List.of(ids.get(2), ids.get(0), ids.get(1)), result.items().stream().map(Product::getProductId).toList());
+        assertEquals(List.of(unknownId), result.missing());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        result = lookup(MockMvcRequestBuilders.post(CST_URI_PRODUCTS + "/lookup")
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .content(JsonMapper.writeToJson(List.of(ids.get(1), unknownId))));
+
+        assertEquals(List.of(ids.get(1)), result.items().stream().map(Product::getProductId).toList());
+        assertEquals(List.of(unknownId), result.missing());
+
+        // No ids.
+        MvcResult mvcResult = getMvcInstance().perform(MockMvcRequestBuilders.get(CST_URI_PRODUCTS)
+            .param("ids", "")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN))
+            .andReturn();
+        assertEquals(400, mvcResult.getResponse().getStatus());
+    }
+
+    private LookupResult<Product> lookup(MockHttpServletRequestBuilder request) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MvcResult mvcResult = mvcInstance.perform(request
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+        assertEquals(200, mvcResult.getResponse().getStatus());
+
+        return JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), new TypeReference<>() {});
+    }
 }
\ No newline at end of file
@@ -17,8 +17,10 @@ package org.rd.fullstack.springbootnuxt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.junit.jupiter.api.DisplayName;
@@ -27,10 +29,13 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.config.WebConfig;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
 import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
 import org.rd.fullstack.springbootnuxt.dto.Inventory;
 import org.rd.fullstack.springbootnuxt.dto.InventoryView;
 import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
 import org.rd.fullstack.springbootnuxt.util.JsonMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -40,7 +45,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 /*
  * See POM.XML file
@@ -56,6 +64,9 @@ public class T8300_InventoryController_UT_Tests extends AbstractMVC {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
     private final String CST_URI_INVENTORIES = "/api/inventories";
 
     public T8300_InventoryController_UT_Tests() {
@@ -140,4 +151,73 @@ public class T8300_InventoryController_UT_Tests extends AbstractMVC {
         List<InventoryView> inventoriesView = JsonMapper.readFromJson(content, new TypeReference<>() {});
         inventoriesView.forEach(inventory -> logger.info("The get response message: {}.", inventory.toString()));
     }
+
+    @Test
+    @Order(4)
+    public void getInventoriesViewBinary() throws Exception {
+        // Same list in JSON, CBOR and Smile: the binary payloads are smaller.
+        byte[] json = getView(MediaType.APPLICATION_JSON_VALUE);
+        List<InventoryView> expected = JsonMapper.readFromJson(new String(json, StandardCharsets.UTF_8), new TypeReference<>() {});
+
+        assertBinaryView(MediaType.APPLICATION_CBOR_VALUE, new CBORFactory(), expected, json.length);
+        assertBinaryView(WebConfig.CST_APPLICATION_SMILE_VALUE, new SmileFactory(), expected, json.length);
+    }
+
+    private void assertBinaryView(String mediaType, JsonFactory factory,
+                                  List<InventoryView> expected, int jsonLength) throws Exception {
+        byte[] content = getView(mediaType);
+        List<InventoryView> inventoriesView = WebConfig.binaryMapper(factory).readValue(content, new TypeReference<>() {});
+
+        assertEquals(expected, inventoriesView);
+        assertTrue(content.length < jsonLength);
+        logger.info("The {} payload: {} bytes (JSON: {} bytes).", mediaType, content.length, jsonLength);
+    }
+
+    private byte[] getView(String mediaType) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MvcResult mvcResult = mvcInstance.perform(MockMvcRequestBuilders.get(CST_URI_INVENTORIES + "/view")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(mediaType))
+            .andReturn();
+
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertTrue(MediaType.valueOf(mediaType).isCompatibleWith(MediaType.valueOf(mvcResult.getResponse().getContentType())));
+        return mvcResult.getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    @Order(5)
+    public void withdrawInventory() throws Exception {
+        Product product = productRepository.saveAndFlush(new Product("Test-05 Code", "Test-05 Description", BigDecimal.valueOf(9.99)));
+        Inventory inventory = inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), 10L));
+
+        // The resulting quantity comes with the response.
+        MvcResult mvcResult = withdraw(inventory.getInventoryId(), 4L);
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        StockAdjustment adjustment = JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), StockAdjustment.class);
+        assertEquals(6L, adjustment.qty());
+        assertEquals(product.getProductId(), adjustment.productId());
+
+        // Insufficient stock: nothing withdrawn, never negative.
+        assertEquals(409, withdraw(inventory.getInventoryId(), 7L).getResponse().getStatus());
+        assertEquals(400, withdraw(inventory.getInventoryId(), 0L).getResponse().getStatus());
+        assertEquals(6L, inventoryRepository.findById(inventory.getInventoryId()).orElseThrow().getQty());
+
+        mvcResult = withdraw(inventory.getInventoryId(), 6L);
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertEquals(0L, JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), StockAdjustment.class).qty());
+    }
+
+    private MvcResult withdraw(long inventoryId, long qty) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        return mvcInstance.perform(MockMvcRequestBuilders.post(CST_URI_INVENTORIES + "/" + inventoryId + "/withdraw")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .param("qty", String.valueOf(qty))
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.reactivestreams.Publisher;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.util.GraphQLCostAnalyzer;
+import org.rd.fullstack.springbootnuxt.util.GraphQLDocumentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import graphql.ExecutionResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import reactor.core.publisher.Flux;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@SpringBootTest(classes = Application.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("GraphQL schema and controllers tests.")
+public class T8600_GraphQL_UT_Tests {
+    private static final Logger logger = LoggerFactory.getLogger(T8600_GraphQL_UT_Tests.class);
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GraphQLDocumentCache documentCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    public T8600_GraphQL_UT_Tests() {
+        super();
+    }
+
+    @Test
+    @Order(1)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    public void queryPersonsAndProducts() throws Exception {
+        Map<String, Object> data = execute("{ persons(first: 10) { edges { node { personId firstName } } } " +
+                                           "products(first: 10) { edges { node { productId code price } } } }");
+
+        assertFalse(nodes(data, "persons").isEmpty());
+        assertFalse(nodes(data, "products").isEmpty());
+        logger.info("The GraphQL response: {}.", data);
+    }
+
+    @Test
+    @Order(2)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    @SuppressWarnings("unchecked")
+    public void queryInventoriesWithoutNPlusOne() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> data = execute("{ inventories(first: 50) { edges { node { inventoryId qty product { code description } } } } }");
+
+        List<Map<String, Object>> inventories = nodes(data, "inventories");
+        assertTrue(inventories.size() > 1, "The N+1 test needs many inventories.");
+        inventories.forEach(inventory -> assertNotNull(inventory.get("product")));
+
+        // N+1 regression: one query for the inventories, one "IN (...)" query for all the products.
+        assertEquals(2, statistics.getPrepareStatementCount(), "N+1 queries detected.");
+        logger.info("{} inventories, {} statements.", inventories.size(), statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Order(3)
+    public void queryWithoutAuthorization() throws Exception {
+        ExecutionGraphQlResponse response = graphQlService.execute(request("{ products { totalCount } }")).block();
+        assertNotNull(response);
+        assertFalse(response.getErrors().isEmpty(), "The query must be denied.");
+    }
+
+    @Test
+    @Order(4)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    public void queryAutomaticPersistedQuery() throws Exception {
+        String document = "{ products(first: 5) { edges { node { productId code } } } }";
+        Map<String, Object> extensions = Map.of("persistedQuery",
+            Map.of("version", 1, "sha256Hash", GraphQLDocumentCache.sha256(document)));
+
+        // Unknown hash: the client must send the query.
+        ExecutionGraphQlResponse response = graphQlService.execute(request("", extensions)).block();
+        assertNotNull(response);
+        assertEquals("PersistedQueryNotFound", response.getErrors().get(0).getMessage());
+
+        // Query and hash: registered. Then the hash only is enough.
+        int size = documentCache.size();
+        assertNotNull(execute(request(document, extensions)).get("products"));
+        assertEquals(size + 1, documentCache.size());
+        assertNotNull(execute(request("", extensions)).get("products"));
+
+        // Hash mismatch.
+        response = graphQlService.execute(request("{ persons { totalCount } }", extensions)).block();
+        assertNotNull(response);
+        assertEquals("PersistedQueryIdInvalid", response.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    @Order(5)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    public void queryTooCostly() throws Exception {
+        // Many aliases of a page: each one costs 10 + 100 * (1 + 1 * (1 + 2 + 4)) = 810.
+        StringBuilder document = new StringBuilder("{");
+        for (int i = 0; i < 20; i++)
+            document.append(" i").append(i).append(": inventories(first: 100) { edges { node { product { productId code description price } } } }");
+        document.append(" }");
+
+        double rejected = meterRegistry.counter("graphql.query.rejected", "reason", "cost").count();
+        ExecutionGraphQlResponse response = graphQlService.execute(request(document.toString())).block();
+
+        assertNotNull(response);
+        assertEquals(1, response.getErrors().size());
+        assertEquals(GraphQLCostAnalyzer.CST_TOO_COSTLY, response.getErrors().get(0).getExtensions().get("code"));
+        assertEquals(rejected + 1, meterRegistry.counter("graphql.query.rejected", "reason", "cost").count());
+        logger.info("Rejected: {}.", response.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    @Order(6)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    @SuppressWarnings("unchecked")
+    public void queryConnectionPages() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Without totalCount: one keyset query, no COUNT(*).
+        Map<String, Object> data = execute("{ products(first: 2) { edges { node { productId } cursor } pageInfo { hasNextPage endCursor } } }");
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Map<String, Object> pageInfo = (Map<String, Object>) ((Map<String, Object>) data.get("products")).get("pageInfo");
+        List<Map<String, Object>> firstPage = nodes(data, "products");
+        assertEquals(2, firstPage.size());
+        assertEquals(Boolean.TRUE, pageInfo.get("hasNextPage"));
+
+        // First page: from the lowest id (the identities start at 0).
+        long lowestId = productRepository.findAll().stream().mapToLong(Product::getProductId).min().orElseThrow();
+        assertEquals(lowestId, Long.parseLong(firstPage.get(0).get("productId").toString()));
+
+        // Next page: after the end cursor. With totalCount.
+        data = execute("{ products(first: 2, after: \"" + pageInfo.get("endCursor") + "\") { totalCount edges { node { productId } } } }");
+        List<Map<String, Object>> secondPage = nodes(data, "products");
+        long lastId  = Long.parseLong(firstPage.get(1).get("productId").toString());
+        long firstId = Long.parseLong(secondPage.get(0).get("productId").toString());
+        assertTrue(firstId > lastId, "Keyset: the next page starts after the cursor.");
+        assertTrue(((Number) ((Map<String, Object>) data.get("products")).get("totalCount")).longValue() > 2);
+    }
+
+    @Test
+    @Order(7)
+    @WithMockUser(authorities = "ROLE_SELECT")
+    @SuppressWarnings("unchecked")
+    public void subscribeLowStock() throws Exception {
+        Product product = productRepository.saveAndFlush(
+            new Product("Test-8600 Code", "Test-8600 Description", BigDecimal.ONE));
+        Inventory inventory = inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), 50L));
+
+        ExecutionGraphQlResponse response = graphQlService.execute(request(
+            "subscription { lowStock(threshold: 5, productId: " + product.getProductId() + ") { inventoryId qty previousQty } }")).block();
+        assertNotNull(response);
+        assertTrue(response.getErrors().isEmpty(), "GraphQL errors: " + response.getErrors());
+
+        CompletableFuture<ExecutionResult> event = Flux.from((Publisher<ExecutionResult>) response.getData())
+                                                       .next()
+                                                       .toFuture();
+
+        // 50 -> 10: above the threshold (filtered). 10 -> 3: crossing.
+        inventory.setQty(10L);
+        inventory = inventoryRepository.saveAndFlush(inventory);
+        inventory.setQty(3L);
+        inventoryRepository.saveAndFlush(inventory);
+
+        Map<String, Object> data = event.get(5, TimeUnit.SECONDS).getData();
+        Map<String, Object> lowStock = (Map<String, Object>) data.get("lowStock");
+        assertEquals(3, ((Number) lowStock.get("qty")).intValue());
+        assertEquals(10, ((Number) lowStock.get("previousQty")).intValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> nodes(Map<String, Object> data, String connection) {
+        List<Map<String, Object>> edges = (List<Map<String, Object>>) ((Map<String, Object>) data.get(connection)).get("edges");
+        return edges.stream().map(edge -> (Map<String, Object>) edge.get("node")).toList();
+    }
+
+    private Map<String, Object> execute(String document) {
+        return execute(request(document));
+    }
+
+    private Map<String, Object> execute(DefaultExecutionGraphQlRequest request) {
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        assertNotNull(response);
+        assertTrue(response.getErrors().isEmpty(), "GraphQL errors: " + response.getErrors());
+        return response.getData();
+    }
+
+    private DefaultExecutionGraphQlRequest request(String document) {
+        return request(document, null);
+    }
+
+    private DefaultExecutionGraphQlRequest request(String document, Map<String, Object> extensions) {
+        return new DefaultExecutionGraphQlRequest(document, null, null, extensions, UUID.randomUUID().toString(), Locale.getDefault());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.util.GraphQLResponseCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("HTTP caching tests for GraphQL GET requests.")
+public class T8700_HttpGetHandlerGraphQl_UT_Tests extends AbstractMVC {
+
+    private static final String CST_URI_GRAPHQL = "/graphql";
+    private static final String CST_QUERY       = "{ products(first: 5) { totalCount edges { node { productId code } } } }";
+
+    private static String etag = null;
+
+    @Autowired
+    private GraphQLResponseCache responseCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public T8700_HttpGetHandlerGraphQl_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void getWithETag() throws Exception {
+        responseCache.invalidate();
+        MockHttpServletResponse response = get(null);
+
+        assertEquals(200, response.getStatus());
+        etag = response.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, "No ETag.");
+        assertEquals(1, responseCache.size());
+        logger.info("ETag: {}, Cache-Control: {}.", etag, response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @Order(2)
+    public void getNotModified() throws Exception {
+        MockHttpServletResponse response = get(etag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    public void getAfterEntityWrite() throws Exception {
+        productRepository.saveAndFlush(new Product("Test-8700 Code", "Test-8700 Description", BigDecimal.ONE));
+        assertEquals(0, responseCache.size(), "The cache must be invalidated.");
+
+        MockHttpServletResponse response = get(etag);
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG)); // New totalCount.
+    }
+
+    private MockHttpServletResponse get(String ifNoneMatch) throws Exception {
+        MockMvc mvcInstance = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(CST_URI_GRAPHQL)
+            .param("query", CST_QUERY)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE);
+        if (ifNoneMatch != null)
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+
+        // ServerResponse.async: written at once when the Mono is already complete (cached, 304).
+        MvcResult mvcResult = mvcInstance.perform(request).andReturn();
+        if (! mvcResult.getRequest().isAsyncStarted())
+            return mvcResult.getResponse();
+        return mvcInstance.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.srv.InventoryStreamSrv;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Inventory changes stream (SSE) tests.")
+public class T8800_InventoryStream_UT_Tests extends AbstractMVC {
+
+    private static final String CST_URI_STREAM = "/api/inventories/stream";
+
+    @Autowired
+    private InventoryStreamSrv inventoryStreamSrv;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public T8800_InventoryStream_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void resumeAndCoalesce() throws Exception {
+        Product product = productRepository.saveAndFlush(
+            new Product("Test-8800 Code", "Test-8800 Description", BigDecimal.TEN));
+
+        // One event per committed write.
+        long lastEventId = inventoryStreamSrv.lastEventId();
+        Inventory inventory = inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), 10L));
+        inventory.setQty(11L);
+        inventory = inventoryRepository.saveAndFlush(inventory);
+        inventory.setQty(12L);
+        inventoryRepository.saveAndFlush(inventory);
+        assertEquals(lastEventId + 3, inventoryStreamSrv.lastEventId());
+
+        // Resume: the 3 missed changes of the same inventory are coalesced (the last one only).
+        String content = stream(String.valueOf(lastEventId));
+        assertEquals(1, count(content, "event:" + InventoryStreamSrv.CST_EVENT_CHANGE));
+        assertTrue(content.contains("\"qty\":12"));
+        assertFalse(content.contains("\"qty\":11"));
+        assertTrue(content.contains("id:" + (lastEventId + 3)));
+        logger.info("The stream content: {}.", content);
+    }
+
+    @Test
+    @Order(2)
+    public void resumeOutOfWindow() throws Exception {
+        String content = stream(String.valueOf(inventoryStreamSrv.lastEventId() + 1000));
+        assertTrue(content.contains("event:" + InventoryStreamSrv.CST_EVENT_RESET));
+    }
+
+    private String stream(String lastEventId) throws Exception {
+        MockMvc mvcInstance = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MvcResult mvcResult = mvcInstance.perform(MockMvcRequestBuilders.get(CST_URI_STREAM)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .header("Last-Event-ID", lastEventId)
+            .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+            .andReturn();
+
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertTrue(mvcResult.getRequest().isAsyncStarted());
+
+        Thread.sleep(500); // A few flushes (see flush-interval).
+        return mvcResult.getResponse().getContentAsString();
+    }
+
+    private static int count(String content, String token) {
+        int count = 0;
+        for (int index = content.indexOf(token); index >= 0; index = content.indexOf(token, index + 1))
+            count++;
+        return count;
+    }
+}
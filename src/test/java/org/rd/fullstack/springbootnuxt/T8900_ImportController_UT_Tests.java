@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.ImportProgress;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.srv.LowStockSrv;
+import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Bulk import (CSV/NDJSON) tests.")
+public class T8900_ImportController_UT_Tests extends AbstractMVC {
+
+    private static final String CST_URI_IMPORT = "/api/import/";
+    private static final String CST_PRODUCTS_CSV = """
+        code,description,price
+        Test-8900-A,Product A,1.50
+        Test-8900-B,Product B,2.50
+        Test-8900-C,Product C,3.50
+        """;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LowStockSrv lowStockSrv;
+
+    public T8900_ImportController_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void importProductsCsv() throws Exception {
+        long count = productRepository.count();
+
+        // Batch size (test): 2 rows. Two batches, then the summary.
+        List<ImportProgress> report = importRows("products", "text/csv", CST_PRODUCTS_CSV);
+        assertEquals(3, report.size());
+        assertEquals(2, report.get(0).rows());
+        assertEquals(1, report.get(1).rows());
+        assertTrue(report.get(2).done());
+        assertNull(report.get(2).error());
+        assertEquals(count + 3, productRepository.count());
+
+        // Idempotent: the same file again, the prices updated.
+        report = importRows("products", "text/csv", CST_PRODUCTS_CSV.replace("3.50", "4.50"));
+        assertEquals(3, report.get(2).totalRows());
+        assertEquals(count + 3, productRepository.count());
+        assertEquals(0, productRepository.findByCodeContaining("Test-8900-C").get(0).getPrice().compareTo(
+            new BigDecimal("4.50")));
+    }
+
+    @Test
+    @Order(2)
+    public void importInventoriesNdjson() throws Exception {
+        Product product = productRepository.findByCodeContaining("Test-8900-A").get(0);
+
+        String ndjson = "{\"productId\":" + product.getProductId() + ",\"qty\":7}\n" +
+                        "{\"productId\":" + product.getProductId() + ",\"qty\":8}\n";
+        List<ImportProgress> report = importRows("inventories", MediaType.APPLICATION_NDJSON_VALUE, ndjson);
+
+        assertTrue(report.get(report.size() - 1).done());
+        assertNull(report.get(report.size() - 1).error());
+        Inventory inventory = inventoryRepository.findByProductId(product.getProductId()).orElseThrow();
+        assertEquals(8L, inventory.getQty());
+
+        // One InventoryChange by row: the low stock index is up to date, no reload.
+        assertTrue(lowStockSrv.lowStock(8L, 1000).stream()
+                              .anyMatch(stock -> stock.inventoryId().equals(inventory.getInventoryId()) && (stock.qty() == 8L)));
+    }
+
+    @Test
+    @Order(3)
+    public void importInvalidRow() throws Exception {
+        List<ImportProgress> report = importRows("products", "text/csv", "code,description,price\nTest-8900-D,,1.00\n");
+
+        ImportProgress last = report.get(report.size() - 1);
+        assertTrue(last.done());
+        assertNotNull(last.error());
+        assertEquals(0, last.totalRows());
+    }
+
+    private List<ImportProgress> importRows(String entity, String contentType, String content) throws Exception {
+        MockMvc mvcInstance = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MvcResult mvcResult = mvcInstance.perform(MockMvcRequestBuilders.post(CST_URI_IMPORT + entity)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .contentType(contentType)
+            .accept(MediaType.APPLICATION_NDJSON_VALUE)
+            .content(content))
+            .andReturn();
+
+        // StreamingResponseBody: asynchronous request.
+        String report = mvcInstance.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                                   .andReturn().getResponse().getContentAsString();
+        logger.info("The import report: {}.", report);
+
+        return Arrays.stream(report.split("\n"))
+                     .map(line -> JsonMapper.readFromJson(line, ImportProgress.class))
+                     .toList();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("NDJSON export tests.")
+public class T9000_ExportController_UT_Tests extends AbstractMVC {
+
+    private static final String CST_URI_EXPORT = "/api/export/";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public T9000_ExportController_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void exportProducts() throws Exception {
+        MockHttpServletResponse response = export("products", null);
+        List<Map<String, Object>> rows = rows(response.getContentAsString());
+
+        assertEquals(productRepository.count(), rows.size());
+        assertTrue(rows.get(0).containsKey("productId"));
+        assertTrue(rows.get(0).containsKey("code"));
+    }
+
+    @Test
+    @Order(2)
+    public void exportSinceGzip() throws Exception {
+        MockHttpServletResponse response = export("products?since=-1", "gzip;q=0, deflate");
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING)); // Refused: q=0.
+        List<Map<String, Object>> all = rows(response.getContentAsString());
+        long since = ((Number) all.get(1).get("productId")).longValue();
+
+        response = export("products?since=" + since, "gzip, deflate");
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        String content;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<Map<String, Object>> rows = rows(content);
+        assertEquals(all.size() - 2, rows.size());
+        rows.forEach(row -> assertTrue(((Number) row.get("productId")).longValue() > since));
+    }
+
+    @Test
+    @Order(3)
+    public void exportUnknownEntity() throws Exception {
+        MvcResult mvcResult = getMvcInstance().perform(MockMvcRequestBuilders.get(CST_URI_EXPORT + "unknown")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN))
+            .andReturn();
+        assertEquals(404, mvcResult.getResponse().getStatus());
+    }
+
+    private MockHttpServletResponse export(String uri, String acceptEncoding) throws Exception {
+        MockMvc mvcInstance = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(CST_URI_EXPORT + uri)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_NDJSON_VALUE);
+        if (acceptEncoding != null)
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+
+        // StreamingResponseBody: asynchronous request.
+        MvcResult mvcResult = mvcInstance.perform(request).andReturn();
+        MockHttpServletResponse response = mvcInstance.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                                                      .andReturn().getResponse();
+        assertEquals(200, response.getStatus());
+        return response;
+    }
+
+    private static List<Map<String, Object>> rows(String content) {
+        return Arrays.stream(content.split("\n"))
+                     .filter(line -> ! line.isBlank())
+                     .map(line -> JsonMapper.readFromJson(line, new TypeReference<Map<String, Object>>() {}))
+                     .toList();
+    }
+}
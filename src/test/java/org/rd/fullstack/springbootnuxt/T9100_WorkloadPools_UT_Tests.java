@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Connection pools per workload tests.")
+public class T9100_WorkloadPools_UT_Tests extends AbstractMVC {
+
+    @Autowired
+    @Qualifier("reportingDataSource")
+    private HikariDataSource reportingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public T9100_WorkloadPools_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void reportingPoolSaturated() throws Exception {
+        MockMvc mvcInstance = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        // All the reporting connections are taken (test pool: 2 connections, 250 ms timeout).
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < reportingDataSource.getMaximumPoolSize(); i++)
+                connections.add(reportingDataSource.getConnection());
+
+            // The CRUD endpoints (OLTP pool) are not blocked.
+            MvcResult mvcResult = mvcInstance.perform(MockMvcRequestBuilders.get("/api/products")
+                .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+            assertEquals(200, mvcResult.getResponse().getStatus());
+
+            // The report (REPORTING pool) waits, then fails.
+            mvcResult = mvcInstance.perform(MockMvcRequestBuilders.get("/report/invents-report")
+                .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+            assertEquals(500, mvcResult.getResponse().getStatus());
+        } finally {
+            for (Connection connection : connections)
+                connection.close();
+        }
+
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", "reporting").counter();
+        assertNotNull(timeouts, "No pool metrics.");
+        assertTrue(timeouts.count() >= 1);
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "oltp").gauge());
+    }
+
+    @Test
+    @Order(2)
+    public void reportingPoolReleased() throws Exception {
+        MvcResult mvcResult = getMvcInstance().perform(MockMvcRequestBuilders.get("/report/invents-report")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+        assertEquals(200, mvcResult.getResponse().getStatus());
+    }
+}
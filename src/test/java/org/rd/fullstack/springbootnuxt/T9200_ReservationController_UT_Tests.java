@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.dto.Reservation;
+import org.rd.fullstack.springbootnuxt.dto.StockAdjustment;
+import org.rd.fullstack.springbootnuxt.srv.InventoryQtySrv;
+import org.rd.fullstack.springbootnuxt.srv.ReservationSrv;
+import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ * Test configuration: 2000 ms holds, 20 ms tick.
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Controller tests for the stock reservations.")
+public class T9200_ReservationController_UT_Tests extends AbstractMVC {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationSrv reservationSrv;
+
+    @Autowired
+    private InventoryQtySrv inventoryQtySrv;
+
+    private static Long inventoryId = null;
+
+    public T9200_ReservationController_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void reserveAndConfirm() throws Exception {
+        Product product = productRepository.saveAndFlush(new Product("Reservation-01", "Reservation test", BigDecimal.ONE));
+        inventoryId = inventoryRepository.saveAndFlush(new Inventory(product.getProductId(), 10L)).getInventoryId();
+
+        MvcResult mvcResult = post("/api/reservations?inventoryId=" + inventoryId + "&qty=6");
+        assertEquals(201, mvcResult.getResponse().getStatus());
+        Reservation reservation = JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), Reservation.class);
+        assertNotNull(reservation.reservationId());
+
+        // Held, not written: 4 available, a second hold of 6 is refused.
+        assertEquals(4L, available());
+        assertEquals(10L, inventoryRepository.findById(inventoryId).orElseThrow().getQty());
+        assertEquals(409, post("/api/reservations?inventoryId=" + inventoryId + "&qty=6").getResponse().getStatus());
+
+        // The direct withdrawals and the updates keep the hold too (INVENTORY.HELD).
+        assertTrue(inventoryQtySrv.withdrawQTY(inventoryId, 5L).isEmpty());
+        assertEquals(409, update(new Inventory(product.getProductId(), 5L)).getResponse().getStatus());
+        assertEquals(10L, inventoryRepository.findById(inventoryId).orElseThrow().getQty());
+        assertEquals(6L, reservationSrv.held(inventoryId));
+
+        mvcResult = post("/api/reservations/" + reservation.reservationId() + "/confirm");
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertEquals(4L, JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), StockAdjustment.class).qty());
+        assertEquals(4L, available());
+
+        // Confirmed once only.
+        assertEquals(404, post("/api/reservations/" + reservation.reservationId() + "/confirm").getResponse().getStatus());
+    }
+
+    @Test
+    @Order(2)
+    public void releaseAndExpiry() throws Exception {
+        MvcResult mvcResult = post("/api/reservations?inventoryId=" + inventoryId + "&qty=3");
+        Reservation released = JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), Reservation.class);
+        assertEquals(1L, available());
+
+        assertEquals(204, post("/api/reservations/" + released.reservationId() + "/release").getResponse().getStatus());
+        assertEquals(404, post("/api/reservations/" + released.reservationId() + "/release").getResponse().getStatus());
+        assertEquals(4L, available());
+
+        // Not confirmed: the hold expires, the stock is available again.
+        mvcResult = post("/api/reservations?inventoryId=" + inventoryId + "&qty=4");
+        Reservation expired = JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), Reservation.class);
+        assertEquals(0L, available());
+
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (reservationSrv.find(expired.reservationId()).isPresent() && (System.currentTimeMillis() < deadline))
+            Thread.sleep(50L);
+
+        assertEquals(4L, available());
+        assertEquals(404, post("/api/reservations/" + expired.reservationId() + "/confirm").getResponse().getStatus());
+        assertEquals(400, post("/api/reservations?inventoryId=" + inventoryId + "&qty=0").getResponse().getStatus());
+    }
+
+    private long available() throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        MvcResult mvcResult = mvcInstance.perform(MockMvcRequestBuilders.get("/api/inventories/" + inventoryId + "/available")
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        return Long.parseLong(mvcResult.getResponse().getContentAsString());
+    }
+
+    private MvcResult update(Inventory inventory) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        return mvcInstance.perform(MockMvcRequestBuilders.put("/api/inventories/" + inventoryId)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .accept(MediaType.APPLICATION_JSON_VALUE)
+            .content(JsonMapper.writeToJson(inventory)))
+            .andReturn();
+    }
+
+    private MvcResult post(String uri) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        return mvcInstance.perform(MockMvcRequestBuilders.post(uri)
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+    }
+}
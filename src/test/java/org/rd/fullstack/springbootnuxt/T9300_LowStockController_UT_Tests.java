@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023; Réal Demers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rd.fullstack.springbootnuxt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.rd.fullstack.springbootnuxt.config.Application;
+import org.rd.fullstack.springbootnuxt.dao.InventoryRepository;
+import org.rd.fullstack.springbootnuxt.dao.ProductRepository;
+import org.rd.fullstack.springbootnuxt.dto.Inventory;
+import org.rd.fullstack.springbootnuxt.dto.LowStock;
+import org.rd.fullstack.springbootnuxt.dto.LowStockEvent;
+import org.rd.fullstack.springbootnuxt.dto.Product;
+import org.rd.fullstack.springbootnuxt.srv.LowStockSrv;
+import org.rd.fullstack.springbootnuxt.util.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/*
+ * See POM.XML file
+ * - Plugins section: maven-surefire-plugin
+ * - Unit tests VS integrated tests.
+ * The crossings are published in the thread of the commit: recorded by the test (ApplicationEvents).
+ */
+@WebAppConfiguration
+@SpringBootTest(classes = Application.class)
+@RecordApplicationEvents
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Controller tests for the low stock alerts.")
+public class T9300_LowStockController_UT_Tests extends AbstractMVC {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LowStockSrv lowStockSrv;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private static Long productId = null;
+    private static Long inventoryId = null;
+
+    public T9300_LowStockController_UT_Tests() {
+        super();
+        mvcInstance = null;
+    }
+
+    @Test
+    @Order(1)
+    public void thresholdAndCrossings() throws Exception {
+        Product product = productRepository.saveAndFlush(new Product("LowStock-01", "Low stock test", BigDecimal.ONE));
+        productId   = product.getProductId();
+        inventoryId = inventoryRepository.saveAndFlush(new Inventory(productId, 50L)).getInventoryId();
+
+        assertEquals(200, perform(MockMvcRequestBuilders.put("/api/products/" + productId + "/low-stock-threshold?threshold=20")).getResponse().getStatus());
+        assertEquals(404, perform(MockMvcRequestBuilders.put("/api/products/999999/low-stock-threshold?threshold=20")).getResponse().getStatus());
+        assertEquals(400, perform(MockMvcRequestBuilders.put("/api/products/" + productId + "/low-stock-threshold?threshold=-1")).getResponse().getStatus());
+        assertEquals(20L, lowStockSrv.getThreshold(productId));
+
+        // 50 -> 30: still above. 30 -> 15: one LOW crossing. 15 -> 5: already low.
+        for (long qty : new long[] { 20L, 15L, 10L })
+            assertEquals(200, perform(MockMvcRequestBuilders.post("/api/inventories/" + inventoryId + "/withdraw?qty=" + qty)).getResponse().getStatus());
+        assertEquals(List.of(LowStockEvent.Type.LOW), crossings());
+
+        Inventory inventory = inventoryRepository.findById(inventoryId).orElseThrow();
+        inventory.setQty(40L);
+        inventoryRepository.saveAndFlush(inventory);
+        assertEquals(List.of(LowStockEvent.Type.LOW, LowStockEvent.Type.RESTOCKED), crossings());
+
+        // The threshold raised above the quantity: LOW without any quantity change.
+        assertEquals(200, perform(MockMvcRequestBuilders.put("/api/products/" + productId + "/low-stock-threshold?threshold=45")).getResponse().getStatus());
+        assertEquals(List.of(LowStockEvent.Type.LOW, LowStockEvent.Type.RESTOCKED, LowStockEvent.Type.LOW), crossings());
+    }
+
+    @Test
+    @Order(2)
+    public void lowStockRange() throws Exception {
+        // Per product thresholds: this inventory (40 <= 45) is low.
+        List<LowStock> lowStock = lowStock("/api/inventories/low-stock?limit=1000");
+        assertTrue(lowStock.stream().anyMatch(stock -> stock.inventoryId().equals(inventoryId) && (stock.qty() == 40L)));
+        assertTrue(lowStock.stream().allMatch(stock -> stock.qty() <= stock.threshold()));
+        for (int i = 1; i < lowStock.size(); i++)
+            assertTrue(lowStock.get(i - 1).qty() <= lowStock.get(i).qty());
+
+        // Explicit threshold: below this inventory.
+        lowStock = lowStock("/api/inventories/low-stock?threshold=39&limit=1000");
+        assertTrue(lowStock.stream().noneMatch(stock -> stock.inventoryId().equals(inventoryId)));
+        assertTrue(lowStock.stream().allMatch(stock -> (stock.qty() <= 39L) && (stock.threshold() == 39L)));
+
+        // Deleted: out of the index, reloaded from the table the same way.
+        inventoryRepository.deleteById(inventoryId);
+        assertTrue(lowStock("/api/inventories/low-stock?limit=1000").stream().noneMatch(stock -> stock.inventoryId().equals(inventoryId)));
+        lowStockSrv.reload();
+        assertEquals(45L, lowStockSrv.getThreshold(productId));
+
+        assertEquals(400, perform(MockMvcRequestBuilders.get("/api/inventories/low-stock?limit=0")).getResponse().getStatus());
+    }
+
+    private List<LowStockEvent.Type> crossings() {
+        return events.stream(LowStockEvent.class)
+                     .filter(event -> event.stock().inventoryId().equals(inventoryId))
+                     .map(LowStockEvent::type)
+                     .toList();
+    }
+
+    private List<LowStock> lowStock(String uri) throws Exception {
+        MvcResult mvcResult = perform(MockMvcRequestBuilders.get(uri));
+        if (mvcResult.getResponse().getStatus() == 204)
+            return List.of();
+
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        return JsonMapper.readFromJson(mvcResult.getResponse().getContentAsString(), new TypeReference<List<LowStock>>() {});
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MockMvc mvcInstance  = getMvcInstance();
+        assertNotNull(mvcInstance);
+
+        return mvcInstance.perform(request
+            .header("Authorization", "Bearer " + CST_JWT_TOKEN)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn();
+    }
+}
@@ -18,6 +18,8 @@
 
 -- BEGIN.
 --
+DROP TABLE IF EXISTS RESERVATION;
+DROP TABLE IF EXISTS LOW_STOCK_THRESHOLD;
 DROP TABLE IF EXISTS INVENTORY;
 DROP TABLE IF EXISTS PRODUCT;
 DROP TABLE IF EXISTS PERSON;
@@ -42,9 +44,29 @@ CREATE TABLE INVENTORY (
     INVENTORY_ID INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     PRODUCT_ID   INTEGER NOT NULL,
     QTY          INTEGER NOT NULL,
+    HELD         INTEGER DEFAULT 0 NOT NULL, -- Reserved quantity (see RESERVATION).
     CONSTRAINT INVENTORY_PRODUCT_UK UNIQUE (PRODUCT_ID),
     CONSTRAINT INVENTORY_PRODUCT_FK FOREIGN KEY (PRODUCT_ID)
-        REFERENCES PRODUCT (PRODUCT_ID)
+        REFERENCES PRODUCT (PRODUCT_ID),
+    CONSTRAINT INVENTORY_HELD_CK CHECK (HELD >= 0 AND QTY >= HELD)
 );
+
+CREATE TABLE LOW_STOCK_THRESHOLD (
+    PRODUCT_ID INTEGER NOT NULL PRIMARY KEY,
+    THRESHOLD  INTEGER NOT NULL,
+    CONSTRAINT LOW_STOCK_THRESHOLD_PRODUCT_FK FOREIGN KEY (PRODUCT_ID)
+        REFERENCES PRODUCT (PRODUCT_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE RESERVATION (
+    RESERVATION_ID VARCHAR(36) NOT NULL PRIMARY KEY,
+    INVENTORY_ID   INTEGER     NOT NULL,
+    QTY            INTEGER     NOT NULL,
+    EXPIRES_AT     BIGINT      NOT NULL, -- Epoch ms.
+    CONSTRAINT RESERVATION_INVENTORY_FK FOREIGN KEY (INVENTORY_ID)
+        REFERENCES INVENTORY (INVENTORY_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX RESERVATION_EXPIRES_AT_IX ON RESERVATION (EXPIRES_AT);
 --
 -- END.
\ No newline at end of file